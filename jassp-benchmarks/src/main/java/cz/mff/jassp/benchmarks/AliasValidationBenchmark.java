@@ -0,0 +1,91 @@
+package cz.mff.jassp.benchmarks;
+
+import cz.mff.jassp.option.CompiledOptionList;
+import cz.mff.jassp.option.Option;
+import cz.mff.jassp.option.OptionList;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares recognition of option tokens via regex-based alias validation (the former parser's path)
+ * with the in-place alias scanner and token index used by the parser now.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AliasValidationBenchmark {
+
+    /**
+     * Flag-heavy command line, all tokens are defined options.
+     */
+    private final String[] tokens = {
+            "-v", "-x", "--verbose", "-a", "--output", "-q", "--force", "-r", "--recursive", "--dryRun",
+            "-n", "--color", "-z", "--level2", "-b", "--ignoreCase"
+    };
+
+    private CompiledOptionList compiled;
+
+    @Setup
+    public void setup() {
+        OptionList options = new OptionList();
+        for (String token : tokens) {
+            if (token.startsWith("--"))
+                options.addOption(Option.builder().addLongAlias(token.substring(2)).build());
+            else
+                options.addOption(Option.builder().addShortAlias(token.substring(1)).build());
+        }
+        compiled = options.compile();
+    }
+
+    @Benchmark
+    public void regexValidation(Blackhole bh) {
+        for (String token : tokens) {
+            bh.consume(regexOptionToAlias(token));
+        }
+    }
+
+    @Benchmark
+    public void scannerValidation(Blackhole bh) {
+        for (String token : tokens) {
+            if (token.startsWith("--"))
+                bh.consume(Option.isValidLongAlias(token, 2, token.length()));
+            else
+                bh.consume(Option.isValidShortAlias(token, 1, token.length()));
+        }
+    }
+
+    @Benchmark
+    public void regexValidationAndAliasLookup(Blackhole bh) {
+        for (String token : tokens) {
+            bh.consume(compiled.ordinalOfAlias(regexOptionToAlias(token)));
+        }
+    }
+
+    @Benchmark
+    public void tokenLookup(Blackhole bh) {
+        for (String token : tokens) {
+            bh.consume(compiled.ordinalOfToken(token));
+        }
+    }
+
+    //region Former implementation
+
+    private static String regexOptionToAlias(String token) {
+        if (token.startsWith("--")) {
+            if (token.length() <= 2 || !token.substring(2).matches("^[a-zA-Z][a-zA-Z0-9]+$"))
+                throw new IllegalArgumentException(token);
+            return token.substring(2);
+        }
+
+        if (token.length() < 2 || !token.substring(1).matches("^[a-zA-Z]$"))
+            throw new IllegalArgumentException(token);
+        return token.substring(1);
+    }
+
+    //endregion
+}
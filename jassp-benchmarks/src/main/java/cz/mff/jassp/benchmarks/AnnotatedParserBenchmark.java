@@ -0,0 +1,112 @@
+package cz.mff.jassp.benchmarks;
+
+import cz.mff.jassp.annotation.Arg;
+import cz.mff.jassp.annotation.ArgRule;
+import cz.mff.jassp.annotation.Arguments;
+import cz.mff.jassp.annotation.PlainArgs;
+import cz.mff.jassp.option.Option;
+import cz.mff.jassp.option.OptionList;
+import cz.mff.jassp.parser.ArgumentParser;
+import cz.mff.jassp.parser.CompiledParser;
+import cz.mff.jassp.parser.ParsedArgList;
+import cz.mff.jassp.processing.extractor.Extractor;
+import cz.mff.jassp.processing.logic.BinaryRule;
+import cz.mff.jassp.processing.logic.Rule;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parser generated from annotations compared with the option list interpreted by a {@link CompiledParser},
+ * both for the first parse of a fresh JVM (building the specification included) and in a steady state.
+ */
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AnnotatedParserBenchmark {
+
+    @Arguments
+    @ArgRule(operator = BinaryRule.Operator.XOR, left = "release", right = "debug")
+    @ArgRule(operator = BinaryRule.Operator.IMPLIES, left = "level", right = "debug")
+    record ToolArgs(
+            @Arg boolean release,
+            @Arg boolean debug,
+            @Arg(shortAliases = "v") boolean verbose,
+            @Arg(shortAliases = "l") int level,
+            @Arg(shortAliases = "i", required = true) String input,
+            @Arg(shortAliases = "o") String output,
+            @Arg(shortAliases = "j") int jobs,
+            @Arg double ratio,
+            @PlainArgs List<String> files) {
+    }
+
+    private static final String[] args = {"--debug", "-v", "-l", "3", "-i", "in.txt", "-o", "out.txt",
+            "-j", "8", "--ratio", "0.75", "a", "b"};
+
+    private static OptionList createOptions() {
+        OptionList options = new OptionList();
+        options.addOptions(List.of(
+                Option.builder().addLongAlias("release").build(),
+                Option.builder().addLongAlias("debug").build(),
+                Option.builder().addShortAlias("v").addLongAlias("verbose").build(),
+                Option.builder().addShortAlias("l").addLongAlias("level").setExtractor(Extractor.Integer()).build(),
+                Option.builder().addShortAlias("i").addLongAlias("input").setRequired().expectsParameter().build(),
+                Option.builder().addShortAlias("o").addLongAlias("output").expectsParameter().build(),
+                Option.builder().addShortAlias("j").addLongAlias("jobs").setExtractor(Extractor.Integer()).build(),
+                Option.builder().addLongAlias("ratio").setExtractor(Extractor.Real()).build()
+        ));
+        options.addRules(List.of(
+                Rule.Xor("release", "debug"),
+                Rule.Implies("level", "debug")
+        ));
+        return options;
+    }
+
+    /**
+     * Parser compiled outside of first-parse benchmarks, so that their classes stay unloaded until measured.
+     */
+    @State(Scope.Benchmark)
+    public static class Compiled {
+        private CompiledParser parser;
+
+        @Setup
+        public void setup() {
+            parser = ArgumentParser.compile(createOptions());
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(20)
+    public ParsedArgList firstParseCompiled() {
+        return ArgumentParser.compile(createOptions()).parse(args);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(20)
+    public ToolArgs firstParseGenerated() {
+        return AnnotatedParserBenchmark_ToolArgsParser.parse(args);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(1)
+    public ParsedArgList compiled(Compiled compiled) {
+        return compiled.parser.parse(args);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(1)
+    public ToolArgs generated() {
+        return AnnotatedParserBenchmark_ToolArgsParser.parse(args);
+    }
+}
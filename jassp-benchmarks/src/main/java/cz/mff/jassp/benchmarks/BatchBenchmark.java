@@ -0,0 +1,63 @@
+package cz.mff.jassp.benchmarks;
+
+import cz.mff.jassp.parser.ArgumentParser;
+import cz.mff.jassp.parser.CompiledParser;
+import cz.mff.jassp.parser.ParseResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse of a batch of recorded command lines against one specification, sequentially one by one
+ * and by {@link CompiledParser#tryParseAll(List, java.util.concurrent.Executor)} with varying parallelism.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+
+    private static final int OPTION_COUNT = 40;
+    private static final int BATCH_SIZE = 100_000;
+
+    @Param({"1", "2", "4"})
+    public int threads;
+
+    private CompiledParser parser;
+    private List<String[]> batch;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        parser = ArgumentParser.compile(Specs.optionsWithRules(OPTION_COUNT));
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(Specs.args(OPTION_COUNT, 1 + i % 16));
+        }
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public ParseResult[] sequential() {
+        ParseResult[] results = new ParseResult[batch.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = parser.tryParse(batch.get(i));
+        }
+        return results;
+    }
+
+    @Benchmark
+    public List<ParseResult> batch() {
+        return parser.tryParseAll(batch, pool);
+    }
+}
@@ -0,0 +1,134 @@
+package cz.mff.jassp.benchmarks;
+
+import cz.mff.jassp.processing.extractor.Extractor;
+import cz.mff.jassp.processing.extractor.StringExtractor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extraction of a single value by each of the built-in extractors.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExtractorBenchmark {
+
+    private final Extractor<Integer> intExtractor = Extractor.Integer(-1_000_000, 1_000_000);
+    private final Extractor<Double> realExtractor = Extractor.Real(-1e9, 1e9);
+    private final Extractor<List<String>> listExtractor = Extractor.List(",");
+    private final Extractor<List<Integer>> structListExtractor = Extractor.List(",", Extractor.Integer());
+    private final Extractor<String> stringExtractor = Extractor.String();
+    private Extractor<String> domainStringExtractor;
+    private Extractor<String> ignoreCaseStringExtractor;
+    private Extractor<String> prefixStringExtractor;
+
+    private final String intValue = "-123456";
+    private final String realValue = "31415.9265";
+    private final String listValue = "alpha,beta,gamma,delta,epsilon,zeta,eta,theta";
+    private final String intListValue = "1,22,333,4444,55555,666666,7777777,88888888";
+    private final String stringValue = "some string value";
+    private String domainValue;
+
+    private final Extractor<int[]> intArrayExtractor = Extractor.IntArray(",");
+    private final Extractor<double[]> realArrayExtractor = Extractor.RealArray(",");
+    private final Extractor<List<Double>> structRealListExtractor = Extractor.List(",", Extractor.Real());
+
+    /**
+     * Lists of 100k shard IDs and weights.
+     */
+    private String shardIds;
+    private String weights;
+
+    @Setup
+    public void setup() {
+        List<String> domain = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            domain.add("REGION-" + i);
+        }
+        domainStringExtractor = Extractor.String(domain);
+        ignoreCaseStringExtractor = Extractor.String(domain, StringExtractor.Matching.IGNORE_CASE);
+        prefixStringExtractor = Extractor.String(domain, StringExtractor.Matching.UNIQUE_PREFIX);
+        domainValue = "REGION-1999";
+
+        StringBuilder ids = new StringBuilder();
+        StringBuilder reals = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            String delimiter = i == 0 ? "" : ",";
+            ids.append(delimiter).append(i * 7);
+            reals.append(delimiter).append(i % 1000).append('.').append(i % 97);
+        }
+        shardIds = ids.toString();
+        weights = reals.toString();
+    }
+
+    @Benchmark
+    public Integer intExtractor() {
+        return intExtractor.parse(intValue);
+    }
+
+    @Benchmark
+    public Integer intExtractorValidateThenParse() {
+        return intExtractor.validate(intValue) ? intExtractor.parse(intValue) : null;
+    }
+
+    @Benchmark
+    public Double realExtractor() {
+        return realExtractor.parse(realValue);
+    }
+
+    @Benchmark
+    public List<String> listExtractor() {
+        return listExtractor.parse(listValue);
+    }
+
+    @Benchmark
+    public List<Integer> structListExtractor() {
+        return structListExtractor.parse(intListValue);
+    }
+
+    @Benchmark
+    public List<Integer> largeStructIntList() {
+        return structListExtractor.parse(shardIds);
+    }
+
+    @Benchmark
+    public int[] largeIntArray() {
+        return intArrayExtractor.parse(shardIds);
+    }
+
+    @Benchmark
+    public List<Double> largeStructRealList() {
+        return structRealListExtractor.parse(weights);
+    }
+
+    @Benchmark
+    public double[] largeRealArray() {
+        return realArrayExtractor.parse(weights);
+    }
+
+    @Benchmark
+    public String stringExtractor() {
+        return stringExtractor.parse(stringValue);
+    }
+
+    @Benchmark
+    public String stringExtractorWithDomain() {
+        return domainStringExtractor.parse(domainValue);
+    }
+
+    @Benchmark
+    public String stringExtractorIgnoringCase() {
+        return ignoreCaseStringExtractor.parse(domainValue);
+    }
+
+    @Benchmark
+    public String stringExtractorByPrefix() {
+        return prefixStringExtractor.parse(domainValue);
+    }
+}
@@ -0,0 +1,48 @@
+package cz.mff.jassp.benchmarks;
+
+import cz.mff.jassp.option.OptionList;
+import cz.mff.jassp.parser.ArgumentParser;
+import cz.mff.jassp.parser.CompiledParser;
+import cz.mff.jassp.parser.ParsedArgList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end parsing of a command line using 8 options (with values) against specifications of various sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+    @Param({"small", "medium", "huge"})
+    public String size;
+
+    private OptionList options;
+    private ArgumentParser parser;
+    private CompiledParser compiledParser;
+    private String[] args;
+
+    @Setup
+    public void setup() {
+        int count = Specs.optionCount(size);
+        options = Specs.optionsWithRules(count);
+        parser = new ArgumentParser();
+        compiledParser = ArgumentParser.compile(options);
+        args = Specs.args(count, 8);
+    }
+
+    @Benchmark
+    public ParsedArgList argumentParser() {
+        return parser.parse(options, args);
+    }
+
+    @Benchmark
+    public ParsedArgList compiledParser() {
+        return compiledParser.parse(args);
+    }
+}
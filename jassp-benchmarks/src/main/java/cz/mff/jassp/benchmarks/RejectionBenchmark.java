@@ -0,0 +1,49 @@
+package cz.mff.jassp.benchmarks;
+
+import cz.mff.jassp.option.OptionList;
+import cz.mff.jassp.parser.ArgumentParser;
+import cz.mff.jassp.parser.CompiledParser;
+import cz.mff.jassp.parser.ParseError;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejection of a command line whose integer option has a malformed value, reported by an exception or by an error object.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RejectionBenchmark {
+
+    private CompiledParser compiledParser;
+    private String[] args;
+
+    @Setup
+    public void setup() {
+        OptionList options = Specs.options(Specs.optionCount("medium"));
+        compiledParser = ArgumentParser.compile(options);
+
+        // option 2 expects an integer
+        args = new String[]{"-a", "--opt1", "value", "--opt2", "12x", "--", "input.txt"};
+    }
+
+    @Benchmark
+    public String exception() {
+        try {
+            compiledParser.parse(args);
+            return null;
+        }
+        catch (RuntimeException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public ParseError.Kind errorObject() {
+        return compiledParser.tryParse(args).getError().getKind();
+    }
+}
@@ -0,0 +1,110 @@
+package cz.mff.jassp.benchmarks;
+
+import cz.mff.jassp.option.OptionList;
+import cz.mff.jassp.parser.ArgumentParser;
+import cz.mff.jassp.parser.CompiledParser;
+import cz.mff.jassp.parser.ParseResult;
+import cz.mff.jassp.parser.ParsedArgList;
+import cz.mff.jassp.processing.logic.Rule;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluation of deep rule trees on top of an already parsed argument list,
+ * and parses enforcing the same trees as compiled rules (to be compared with {@link #noRules()}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RuleBenchmark {
+
+    private static final int OPTION_COUNT = 40;
+
+    @Param({"10", "100", "1000"})
+    public int depth;
+
+    private ParsedArgList parsedArgs;
+    private String[] args;
+
+    private CompiledParser withoutRules;
+    private CompiledParser withImplicationChain;
+    private CompiledParser withBalancedTree;
+
+    /**
+     * Left-deep chain of implications, as emitted by generated policies; every level has to be evaluated.
+     */
+    private Rule implicationChain;
+
+    /**
+     * Balanced tree of mixed operators with the given number of leaves.
+     */
+    private Rule balancedTree;
+
+    @Setup
+    public void setup() {
+        OptionList options = Specs.options(OPTION_COUNT);
+        args = Specs.args(OPTION_COUNT, 8);
+        parsedArgs = new ArgumentParser().parse(options, args);
+
+        Rule chain = Rule.Exists("h0");
+        for (int i = 1; i < depth; i++) {
+            chain = Rule.Implies(chain, "h" + (i % OPTION_COUNT));
+        }
+        implicationChain = chain;
+
+        balancedTree = balanced(0, depth);
+
+        withoutRules = ArgumentParser.compile(options);
+        withImplicationChain = compileWith(implicationChain);
+        withBalancedTree = compileWith(balancedTree);
+    }
+
+    private static CompiledParser compileWith(Rule rule) {
+        OptionList options = Specs.options(OPTION_COUNT);
+        options.addRule(rule);
+        return ArgumentParser.compile(options);
+    }
+
+    private static Rule balanced(int from, int to) {
+        if (to - from == 1)
+            return Rule.Exists("h" + (from % OPTION_COUNT));
+
+        int mid = (from + to) / 2;
+        Rule left = balanced(from, mid);
+        Rule right = balanced(mid, to);
+        return switch (from % 3) {
+            case 0 -> Rule.Eq(left, right);
+            case 1 -> Rule.Xor(left, right);
+            default -> Rule.Or(left, right);
+        };
+    }
+
+    @Benchmark
+    public boolean implicationChain() {
+        return implicationChain.holds(parsedArgs);
+    }
+
+    @Benchmark
+    public boolean balancedTree() {
+        return balancedTree.holds(parsedArgs);
+    }
+
+    @Benchmark
+    public ParseResult noRules() {
+        return withoutRules.tryParse(args);
+    }
+
+    @Benchmark
+    public ParseResult compiledImplicationChain() {
+        return withImplicationChain.tryParse(args);
+    }
+
+    @Benchmark
+    public ParseResult compiledBalancedTree() {
+        return withBalancedTree.tryParse(args);
+    }
+}
@@ -0,0 +1,69 @@
+package cz.mff.jassp.benchmarks;
+
+import cz.mff.jassp.option.OptionList;
+import cz.mff.jassp.parser.ArgumentParser;
+import cz.mff.jassp.parser.ParsedArgList;
+import cz.mff.jassp.processing.logic.AtomicRule;
+import cz.mff.jassp.processing.logic.Rule;
+import cz.mff.jassp.processing.logic.RuleProgram;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluation of very deep generated rule trees by the recursive {@link Rule#holds(ParsedArgList)}
+ * and by a {@link RuleProgram} run with an explicit stack.
+ * The recursive path needs a large thread stack at the deepest setting, hence the forked JVM's {@code -Xss}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xss1g")
+@State(Scope.Benchmark)
+public class RuleProgramBenchmark {
+
+    private static final int OPTION_COUNT = 40;
+
+    @Param({"10", "1000", "100000"})
+    public int depth;
+
+    private ParsedArgList parsedArgs;
+    private long[] presence;
+
+    /**
+     * Left-deep chain of implications alternating presence tests and general atomic rules,
+     * so that the chain can't be precomputed and every level has to be evaluated.
+     */
+    private Rule chain;
+    private RuleProgram program;
+
+    @Setup
+    public void setup() {
+        OptionList options = Specs.options(OPTION_COUNT);
+        parsedArgs = new ArgumentParser().parse(options, Specs.args(OPTION_COUNT, 8));
+        presence = parsedArgs.getPresenceBits();
+
+        Rule rule = Rule.Exists("h0");
+        for (int i = 1; i < depth; i++) {
+            String handler = "h" + (i % OPTION_COUNT);
+            Rule level = i % 2 == 0
+                    ? Rule.Exists(handler)
+                    : new AtomicRule(List.of(handler), map -> map.get(handler).wasMatched());
+            rule = Rule.Implies(rule, level);
+        }
+        chain = rule;
+        program = RuleProgram.compile(List.of(chain), options.compile()::ordinalOf);
+    }
+
+    @Benchmark
+    public boolean recursive() {
+        return chain.holds(parsedArgs);
+    }
+
+    @Benchmark
+    public boolean program() {
+        return program.holds(presence, parsedArgs);
+    }
+}
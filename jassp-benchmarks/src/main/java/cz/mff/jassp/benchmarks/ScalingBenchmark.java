@@ -0,0 +1,46 @@
+package cz.mff.jassp.benchmarks;
+
+import cz.mff.jassp.parser.ArgumentParser;
+import cz.mff.jassp.parser.CompiledParser;
+import cz.mff.jassp.parser.ParsedArgList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing against specifications of growing size, to check that parse time grows linearly with the number of options.
+ * "allOptions" uses every option of the specification, so its time per option should stay flat across sizes.
+ * "fewOptions" uses 8 options, so its time should only grow by the (cheap) per-option filling of missing options.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScalingBenchmark {
+
+    @Param({"10", "100", "300", "1000", "3000"})
+    public int optionCount;
+
+    private CompiledParser parser;
+    private String[] allArgs;
+    private String[] fewArgs;
+
+    @Setup
+    public void setup() {
+        parser = ArgumentParser.compile(Specs.optionsWithRules(optionCount));
+        allArgs = Specs.args(optionCount, optionCount);
+        fewArgs = Specs.args(optionCount, 8);
+    }
+
+    @Benchmark
+    public ParsedArgList allOptions() {
+        return parser.parse(allArgs);
+    }
+
+    @Benchmark
+    public ParsedArgList fewOptions() {
+        return parser.parse(fewArgs);
+    }
+}
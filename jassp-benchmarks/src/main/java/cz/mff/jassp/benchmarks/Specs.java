@@ -0,0 +1,87 @@
+package cz.mff.jassp.benchmarks;
+
+import cz.mff.jassp.option.Option;
+import cz.mff.jassp.option.OptionList;
+import cz.mff.jassp.processing.extractor.Extractor;
+import cz.mff.jassp.processing.logic.Rule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generators of option specifications and matching command lines shared by the benchmarks.
+ */
+final class Specs {
+    private Specs() {}
+
+    /**
+     * Option counts of specifications used by the "size" benchmark parameter.
+     */
+    static int optionCount(String size) {
+        return switch (size) {
+            case "small" -> 8;
+            case "medium" -> 40;
+            case "huge" -> 300;
+            default -> throw new IllegalArgumentException("Unknown spec size: " + size);
+        };
+    }
+
+    /**
+     * Create a specification with given number of options.
+     * Every fourth option is a flag, the others are equally split between string, integer and real parameters.
+     * Option i has long alias "opt{i}" and handler "h{i}", first 26 options also have a short alias.
+     */
+    static OptionList options(int count) {
+        OptionList options = new OptionList();
+        for (int i = 0; i < count; i++) {
+            var builder = Option.builder()
+                    .setHandler("h" + i)
+                    .addLongAlias("opt" + i);
+
+            if (i < 26)
+                builder.addShortAlias(String.valueOf((char) ('a' + i)));
+
+            switch (i % 4) {
+                case 1 -> builder.expectsParameter();
+                case 2 -> builder.setExtractor(Extractor.Integer());
+                case 3 -> builder.setExtractor(Extractor.Real());
+            }
+            options.addOption(builder.build());
+        }
+        return options;
+    }
+
+    /**
+     * Create a specification together with a few rules over its first options.
+     * Command lines created by {@link #args(int, int)} always satisfy them, as they always contain the first option.
+     */
+    static OptionList optionsWithRules(int count) {
+        OptionList options = options(count);
+        options.addRules(List.of(
+                Rule.Implies("h1", "h0"),
+                Rule.NAnd("h0", Rule.Not("h0")),
+                Rule.Or("h0", Rule.Not("h2"))
+        ));
+        return options;
+    }
+
+    /**
+     * Create a command line using (at most) given number of options spread across the specification, followed by plain args.
+     */
+    static String[] args(int count, int used) {
+        List<String> args = new ArrayList<>();
+        int step = Math.max(1, count / used);
+        for (int i = 0; i < count && args.size() < used * 2; i += step) {
+            args.add(i < 26 && i % 2 == 0 ? "-" + (char) ('a' + i) : "--opt" + i);
+            switch (i % 4) {
+                case 1 -> args.add("value" + i);
+                case 2 -> args.add(Integer.toString(i * 1000));
+                case 3 -> args.add(i + ".25");
+            }
+        }
+        args.add("--");
+        args.add("input.txt");
+        args.add("output.txt");
+        return args.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,45 @@
+package cz.mff.jassp.annotation;
+
+import cz.mff.jassp.processing.extractor.Extractor;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Option of a type annotated by {@link Arguments}, the counterpart of an {@link cz.mff.jassp.option.Option}.
+ * Name of the field is the option's handler, used by {@link ArgRule}s and in error messages.
+ * <p>
+ * Primitive boolean fields are flags. Fields of types int, double and String (or their boxed counterparts)
+ * are extracted by the built-in extractors, fields of other types need an {@link #extractor()}.
+ * Fields of options which were not matched keep their default value (false, 0 or null).
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface Arg {
+
+    /**
+     * @return short aliases of the option, without the "-" prefix
+     */
+    String[] shortAliases() default {};
+
+    /**
+     * @return long aliases of the option, without the "--" prefix. If none are given, the field's name is the long alias.
+     */
+    String[] longAliases() default {};
+
+    /**
+     * @return True if the option has to be present, flags can't be required
+     */
+    boolean required() default false;
+
+    /**
+     * @return extractor of the option's value, which has a public constructor without parameters.
+     * {@link Extractor} itself stands for the built-in extractor of the field's type.
+     */
+    @SuppressWarnings("rawtypes")
+    Class<? extends Extractor> extractor() default Extractor.class;
+}
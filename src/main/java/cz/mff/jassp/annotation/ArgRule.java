@@ -0,0 +1,48 @@
+package cz.mff.jassp.annotation;
+
+import cz.mff.jassp.processing.logic.BinaryRule;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Rule over presence of two options of a type annotated by {@link Arguments}, the counterpart of a {@link BinaryRule}
+ * of two {@link cz.mff.jassp.processing.logic.Rule#Exists(String)} rules. The generated parser checks it inline,
+ * e.g. {@code @ArgRule(operator = IMPLIES, left = "level", right = "debug")} is the same as
+ * {@code Rule.Implies("level", "debug")}.
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+@Repeatable(ArgRule.List.class)
+public @interface ArgRule {
+
+    /**
+     * @return operator combining presence of the options
+     */
+    BinaryRule.Operator operator();
+
+    /**
+     * @return handler (field name) of the left option
+     */
+    String left();
+
+    /**
+     * @return handler (field name) of the right option
+     */
+    String right();
+
+    /**
+     * Container of repeated rules.
+     */
+    @Documented
+    @Retention(RetentionPolicy.SOURCE)
+    @Target(ElementType.TYPE)
+    @interface List {
+        ArgRule[] value();
+    }
+}
@@ -0,0 +1,24 @@
+package cz.mff.jassp.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a record or a class whose fields are options of a command line, see {@link Arg}.
+ * At compile time, {@link ArgumentsProcessor} generates a parser named after the type with a "Parser" suffix
+ * (nested types are prefixed by names of their enclosing types, separated by "_"), e.g. {@code ServerArgsParser}
+ * for {@code ServerArgs}. Its static {@code parse(String[])} method fills a new instance of the type,
+ * matching options by a {@code switch} on their tokens and without any {@link cz.mff.jassp.option.OptionList}.
+ * <p>
+ * Records are created by their canonical constructor, so every component has to be annotated by {@link Arg} or
+ * {@link PlainArgs}. Classes need a non-private constructor without parameters, their annotated fields are assigned
+ * directly, so they can't be private nor final.
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface Arguments {
+}
@@ -0,0 +1,527 @@
+package cz.mff.jassp.annotation;
+
+import cz.mff.jassp.option.Option;
+import cz.mff.jassp.processing.logic.BinaryRule;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Annotation processor generating parsers of types annotated by {@link Arguments}.
+ * The generated parser is straight-line code specialized for the type: options are matched by a {@code switch}
+ * on their tokens, values are kept in typed local variables and rules are inlined as conditions over presence
+ * of options. It uses no reflection and no {@link cz.mff.jassp.option.OptionList}, so a short-lived program
+ * doesn't pay for building and compiling the specification on its startup.
+ * Errors are reported the same way as by {@link cz.mff.jassp.parser.CompiledParser#parse(String[])} of an equivalent
+ * option list (see {@link cz.mff.jassp.parser.GeneratedParserSupport}).
+ * <p>
+ * The processor is registered as a service, so it runs whenever the library is on the compiler's class path.
+ */
+@SupportedAnnotationTypes("cz.mff.jassp.annotation.Arguments")
+public final class ArgumentsProcessor extends AbstractProcessor {
+
+    private static final String extractorClass = "cz.mff.jassp.processing.extractor.Extractor";
+    private static final String support = "cz.mff.jassp.parser.GeneratedParserSupport";
+
+    /**
+     * Option described by an annotated field.
+     * @param index index of the option, used to name its variables in generated code
+     * @param extractorType type of the static field holding the extractor, null for flags
+     * @param extractorInit initializer of the static field holding the extractor, null for flags
+     */
+    private record OptionSpec(int index, VariableElement field, List<String> tokens, boolean required,
+                              String extractorType, String extractorInit) {
+
+        String handler() { return field.getSimpleName().toString(); }
+
+        boolean isFlag() { return extractorType == null; }
+
+        String presence() { return "present" + index; }
+
+        String value() { return isFlag() ? presence() : "value" + index; }
+    }
+
+    /**
+     * Whether an error was reported for the currently processed type.
+     */
+    private boolean hasErrors = false;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        for (Element element : round.getElementsAnnotatedWith(Arguments.class)) {
+            hasErrors = false;
+            if (element.getKind() != ElementKind.RECORD && element.getKind() != ElementKind.CLASS) {
+                error(element, "@Arguments can only annotate records and classes");
+                continue;
+            }
+
+            TypeElement type = (TypeElement) element;
+            if (!isAccessible(type))
+                continue;
+
+            List<OptionSpec> options = new ArrayList<>();
+            VariableElement plainArgs = collectFields(type, options);
+            if (options.isEmpty() && plainArgs == null && !hasErrors)
+                error(type, "@Arguments type has no @Arg nor @PlainArgs fields");
+
+            List<String> rules = collectRules(type, options);
+
+            if (hasErrors)
+                continue;
+
+            try {
+                writeParser(type, options, plainArgs, rules);
+            }
+            catch (IOException e) {
+                error(type, "Failed to write parser: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+        hasErrors = true;
+    }
+
+    private boolean isAccessible(TypeElement type) {
+        for (Element e = type; e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE)) {
+                error(type, "@Arguments type can't be private nor nested in a private type");
+                return false;
+            }
+            if (e instanceof TypeElement nested && nested.getNestingKind() == NestingKind.MEMBER
+                    && !nested.getModifiers().contains(Modifier.STATIC) && nested.getKind() == ElementKind.CLASS) {
+                error(type, "@Arguments type can't be an inner (non-static) class");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //region Fields
+
+    /**
+     * Collect options of the type's fields.
+     * @return field receiving plain arguments, null if there is none
+     */
+    private VariableElement collectFields(TypeElement type, List<OptionSpec> options) {
+        boolean isRecord = type.getKind() == ElementKind.RECORD;
+        if (!isRecord && !hasAccessibleConstructor(type))
+            error(type, "@Arguments class needs a non-private constructor without parameters");
+
+        VariableElement plainArgs = null;
+        Set<String> tokens = new HashSet<>();
+
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC))
+                continue;
+
+            Arg arg = field.getAnnotation(Arg.class);
+            boolean isPlainArgs = field.getAnnotation(PlainArgs.class) != null;
+
+            if (arg == null && !isPlainArgs) {
+                if (isRecord)
+                    error(field, "Component of an @Arguments record needs @Arg or @PlainArgs");
+                continue;
+            }
+            if (arg != null && isPlainArgs) {
+                error(field, "Field can't have both @Arg and @PlainArgs");
+                continue;
+            }
+            if (!isRecord && (field.getModifiers().contains(Modifier.PRIVATE) || field.getModifiers().contains(Modifier.FINAL))) {
+                error(field, "Annotated field of an @Arguments class can't be private nor final");
+                continue;
+            }
+
+            if (isPlainArgs) {
+                if (plainArgs != null)
+                    error(field, "Only one field can have @PlainArgs");
+                else if (!isPlainArgsType(field.asType()))
+                    error(field, "@PlainArgs field has to be of type List<String>");
+                plainArgs = field;
+                continue;
+            }
+
+            OptionSpec option = createOption(options.size(), field, arg, tokens);
+            if (option != null)
+                options.add(option);
+        }
+
+        return plainArgs;
+    }
+
+    private boolean hasAccessibleConstructor(TypeElement type) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE))
+                return true;
+        }
+        return false;
+    }
+
+    private boolean isPlainArgsType(TypeMirror type) {
+        var types = processingEnv.getTypeUtils();
+        var elements = processingEnv.getElementUtils();
+        TypeMirror stringList = types.getDeclaredType(elements.getTypeElement("java.util.List"),
+                elements.getTypeElement("java.lang.String").asType());
+        return types.isSameType(type, stringList);
+    }
+
+    private OptionSpec createOption(int index, VariableElement field, Arg arg, Set<String> usedTokens) {
+        List<String> tokens = new ArrayList<>();
+        for (String alias : arg.shortAliases()) {
+            if (!Option.isValidShortAlias(alias))
+                error(field, "Invalid short alias: " + alias);
+            tokens.add("-" + alias);
+        }
+
+        String[] longAliases = arg.longAliases();
+        if (longAliases.length == 0)
+            longAliases = new String[]{field.getSimpleName().toString()};
+
+        for (String alias : longAliases) {
+            if (!Option.isValidLongAlias(alias))
+                error(field, "Invalid long alias: " + alias);
+            tokens.add("--" + alias);
+        }
+
+        for (String token : tokens) {
+            if (!usedTokens.add(token))
+                error(field, "Alias is used by several options: " + token);
+        }
+
+        TypeMirror type = field.asType();
+        TypeElement extractor = customExtractor(field);
+
+        if (extractor == null) {
+            String builtIn = builtInExtractor(type);
+            if (type.getKind() == TypeKind.BOOLEAN) {
+                if (arg.required())
+                    error(field, "Flag cannot be required");
+                return new OptionSpec(index, field, tokens, false, null, null);
+            }
+            if (builtIn == null) {
+                error(field, "Option of type " + type + " needs an extractor");
+                return null;
+            }
+            String boxed = type.getKind().isPrimitive()
+                    ? processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString()
+                    : type.toString();
+            return new OptionSpec(index, field, tokens, arg.required(),
+                    extractorClass + "<" + boxed + ">", extractorClass + "." + builtIn + "()");
+        }
+
+        if (!checkExtractor(field, extractor))
+            return null;
+
+        String name = extractor.getQualifiedName().toString();
+        return new OptionSpec(index, field, tokens, arg.required(), name, "new " + name + "()");
+    }
+
+    /**
+     * @return name of the factory of a built-in extractor for values of given type, null if there is none
+     */
+    private static String builtInExtractor(TypeMirror type) {
+        return switch (type.getKind()) {
+            case INT -> "Integer";
+            case DOUBLE -> "Real";
+            case DECLARED -> switch (type.toString()) {
+                case "java.lang.Integer" -> "Integer";
+                case "java.lang.Double" -> "Real";
+                case "java.lang.String" -> "String";
+                default -> null;
+            };
+            default -> null;
+        };
+    }
+
+    /**
+     * @return extractor class given by {@link Arg#extractor()}, null if it is not given
+     */
+    private TypeElement customExtractor(VariableElement field) {
+        for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            if (!((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(Arg.class.getCanonicalName()))
+                continue;
+
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                if (!entry.getKey().getSimpleName().contentEquals("extractor"))
+                    continue;
+
+                TypeElement extractor = (TypeElement) ((DeclaredType) entry.getValue().getValue()).asElement();
+                return extractor.getQualifiedName().contentEquals(extractorClass) ? null : extractor;
+            }
+        }
+        return null;
+    }
+
+    private boolean checkExtractor(VariableElement field, TypeElement extractor) {
+        if (extractor.getModifiers().contains(Modifier.ABSTRACT)) {
+            error(field, "Extractor " + extractor + " can't be abstract");
+            return false;
+        }
+
+        boolean constructible = extractor.getModifiers().contains(Modifier.PUBLIC)
+                && (extractor.getNestingKind() == NestingKind.TOP_LEVEL || extractor.getModifiers().contains(Modifier.STATIC))
+                && ElementFilter.constructorsIn(extractor.getEnclosedElements()).stream()
+                        .anyMatch(c -> c.getParameters().isEmpty() && c.getModifiers().contains(Modifier.PUBLIC));
+        if (!constructible) {
+            error(field, "Extractor " + extractor + " needs to be a public class with a public constructor without parameters");
+            return false;
+        }
+
+        TypeMirror extracted = extractedType(extractor.asType());
+        if (extracted == null || !processingEnv.getTypeUtils().isAssignable(extracted, field.asType())) {
+            error(field, "Values of extractor " + extractor + " can't be assigned to type " + field.asType());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return type argument of {@link cz.mff.jassp.processing.extractor.Extractor} among supertypes of given type, null if it is raw
+     */
+    private TypeMirror extractedType(TypeMirror type) {
+        for (TypeMirror supertype : processingEnv.getTypeUtils().directSupertypes(type)) {
+            if (supertype.getKind() != TypeKind.DECLARED)
+                continue;
+
+            DeclaredType declared = (DeclaredType) supertype;
+            if (((TypeElement) declared.asElement()).getQualifiedName().contentEquals(extractorClass))
+                return declared.getTypeArguments().isEmpty() ? null : declared.getTypeArguments().get(0);
+
+            TypeMirror extracted = extractedType(supertype);
+            if (extracted != null)
+                return extracted;
+        }
+        return null;
+    }
+
+    //endregion
+
+    //region Rules
+
+    /**
+     * @return conditions of the type's rules, each of them holds iff its rule is satisfied
+     */
+    private List<String> collectRules(TypeElement type, List<OptionSpec> options) {
+        Map<String, OptionSpec> byHandler = new HashMap<>();
+        for (OptionSpec option : options) {
+            byHandler.put(option.handler(), option);
+        }
+
+        List<String> conditions = new ArrayList<>();
+        for (ArgRule rule : type.getAnnotationsByType(ArgRule.class)) {
+            OptionSpec left = byHandler.get(rule.left());
+            OptionSpec right = byHandler.get(rule.right());
+            if (left == null || right == null) {
+                error(type, "Rule refers to an unknown option: " + (left == null ? rule.left() : rule.right()));
+                continue;
+            }
+            conditions.add(condition(rule.operator(), left.presence(), right.presence()));
+        }
+        return conditions;
+    }
+
+    /**
+     * Inline a rule the same way as {@link BinaryRule#holds(cz.mff.jassp.parser.ParsedArgList)} evaluates it.
+     */
+    private static String condition(BinaryRule.Operator operator, String left, String right) {
+        return switch (operator) {
+            case OR -> left + " || " + right;
+            case IMPLIES -> "!" + left + " || " + right;
+            case EQ -> left + " == " + right;
+            case XOR -> left + " != " + right;
+            case NAND -> "!(" + left + " && " + right + ")";
+            case IMPLIEDBY -> left + " || !" + right;
+        };
+    }
+
+    //endregion
+
+    //region Code generation
+
+    private static String parserName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element e = type.getEnclosingElement(); e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+            name.insert(0, e.getSimpleName() + "_");
+        }
+        return name.append("Parser").toString();
+    }
+
+    private static String defaultValue(TypeMirror type) {
+        return switch (type.getKind()) {
+            case BOOLEAN -> "false";
+            case CHAR -> "'\\0'";
+            case BYTE, SHORT, INT, LONG, FLOAT, DOUBLE -> "0";
+            default -> "null";
+        };
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+
+    private void writeParser(TypeElement type, List<OptionSpec> options, VariableElement plainArgs, List<String> rules) throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String parserName = parserName(type);
+        String typeName = type.getQualifiedName().toString();
+
+        StringBuilder out = new StringBuilder();
+        if (!packageName.isEmpty())
+            out.append("package ").append(packageName).append(";\n\n");
+
+        out.append("/**\n")
+                .append(" * Parser of {@link ").append(typeName).append("} generated from its annotations.\n")
+                .append(" * @see cz.mff.jassp.annotation.Arguments\n")
+                .append(" */\n")
+                .append("@javax.annotation.processing.Generated(\"").append(ArgumentsProcessor.class.getName()).append("\")\n")
+                .append("public final class ").append(parserName).append(" {\n\n");
+
+        for (OptionSpec option : options) {
+            if (!option.isFlag())
+                out.append("    private static final ").append(option.extractorType()).append(" extractor").append(option.index())
+                        .append(" = ").append(option.extractorInit()).append(";\n");
+        }
+
+        out.append("\n    private ").append(parserName).append("() {}\n\n")
+                .append("    /**\n")
+                .append("     * Parse string array into a new instance of {@link ").append(typeName).append("}.\n")
+                .append("     * @param args String array to parse (e.g., command-line arguments)\n")
+                .append("     * @return instance holding values of the parsed options\n")
+                .append("     * @throws cz.mff.jassp.parser.ParserException if arguments don't match the specification\n")
+                .append("     * @throws cz.mff.jassp.processing.extractor.ExtractorException if a value is rejected by its extractor\n")
+                .append("     * @throws cz.mff.jassp.processing.logic.LogicException if any of the rules is not satisfied\n")
+                .append("     */\n")
+                .append("    public static ").append(typeName).append(" parse(String[] args) {\n");
+
+        for (OptionSpec option : options) {
+            out.append("        // ").append(option.handler()).append("\n");
+            out.append("        boolean ").append(option.presence()).append(" = false;\n");
+            if (!option.isFlag())
+                out.append("        ").append(option.field().asType()).append(" ").append(option.value())
+                        .append(" = ").append(defaultValue(option.field().asType())).append(";\n");
+        }
+        if (plainArgs != null)
+            out.append("        java.util.List<String> plainArgs = new java.util.ArrayList<>();\n");
+
+        out.append("""
+
+                        int i = 0;
+                        while (i < args.length) {
+                            String token = args[i];
+
+                            if (token.equals("--")) {
+                                i++;
+                                break;
+                            }
+
+                            if (token.isEmpty() || token.charAt(0) != '-')
+                                break;
+
+                            switch (token) {
+                """);
+
+        for (OptionSpec option : options) {
+            out.append("                case ").append(String.join(", ", option.tokens().stream().map(ArgumentsProcessor::quote).toList()))
+                    .append(" -> {\n")
+                    .append("                    if (").append(option.presence()).append(")\n")
+                    .append("                        throw ").append(support).append(".duplicateOption(")
+                    .append(quote(option.handler())).append(", token, i);\n");
+
+            if (!option.isFlag()) {
+                out.append("                    if (++i == args.length)\n")
+                        .append("                        throw ").append(support).append(".missingParameter(")
+                        .append(quote(option.handler())).append(", token, i - 1);\n")
+                        .append("                    ").append(option.value()).append(" = ").append(support)
+                        .append(".value(extractor").append(option.index()).append(".extract(args[i]), ")
+                        .append(quote(option.handler())).append(", args[i], i);\n");
+            }
+
+            out.append("                    ").append(option.presence()).append(" = true;\n")
+                    .append("                }\n");
+        }
+
+        out.append("                default -> throw ").append(support).append(".undefinedOption(token, i);\n")
+                .append("            }\n")
+                .append("            i++;\n")
+                .append("        }\n\n")
+                .append("        for (; i < args.length; i++) {\n")
+                .append("            if (args[i] == null)\n")
+                .append("                throw ").append(support).append(".nullArgument(i);\n");
+        if (plainArgs != null)
+            out.append("            plainArgs.add(args[i]);\n");
+        out.append("        }\n\n");
+
+        for (OptionSpec option : options) {
+            if (option.required())
+                out.append("        if (!").append(option.presence()).append(")\n")
+                        .append("            throw ").append(support).append(".missingMandatory(")
+                        .append(quote(option.handler())).append(");\n");
+        }
+
+        for (String rule : rules) {
+            out.append("        if (!(").append(rule).append("))\n")
+                    .append("            throw ").append(support).append(".ruleViolated();\n");
+        }
+
+        String plainArgsValue = "java.util.Collections.unmodifiableList(plainArgs)";
+        if (type.getKind() == ElementKind.RECORD) {
+            List<String> arguments = new ArrayList<>();
+            int next = 0;
+            for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                if (field.getModifiers().contains(Modifier.STATIC))
+                    continue;
+                arguments.add(field.equals(plainArgs) ? plainArgsValue : options.get(next++).value());
+            }
+            out.append("\n        return new ").append(typeName).append("(").append(String.join(", ", arguments)).append(");\n");
+        }
+        else {
+            out.append("\n        ").append(typeName).append(" result = new ").append(typeName).append("();\n");
+            for (OptionSpec option : options) {
+                out.append("        result.").append(option.handler()).append(" = ").append(option.value()).append(";\n");
+            }
+            if (plainArgs != null)
+                out.append("        result.").append(plainArgs.getSimpleName()).append(" = ").append(plainArgsValue).append(";\n");
+            out.append("        return result;\n");
+        }
+
+        out.append("    }\n}\n");
+
+        String qualifiedName = packageName.isEmpty() ? parserName : packageName + "." + parserName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(out.toString());
+        }
+    }
+
+    //endregion
+}
@@ -0,0 +1,17 @@
+package cz.mff.jassp.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a field of type {@code List<String>} of a type annotated by {@link Arguments}, which receives plain arguments
+ * (as an unmodifiable list). If no field is marked, plain arguments are checked and dropped.
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface PlainArgs {
+}
@@ -0,0 +1,117 @@
+package cz.mff.jassp.option;
+
+import cz.mff.jassp.processing.logic.Rule;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Frozen snapshot of an {@link OptionList}, created via {@link OptionList#compile()}.
+ * Options are indexed by their aliases and handlers, so that lookups are constant-time and allocate nothing.
+ * Each option is also addressed by its ordinal, which is its position within the snapshotted list.
+ * Once created, it is immutable and can be freely shared between threads.
+ */
+public final class CompiledOptionList {
+
+    private final Option[] options;
+    private final List<Rule> rules;
+
+    /**
+     * Both short and long aliases map to ordinals of their options.
+     * They cannot clash, as short aliases are always single characters and long aliases never are.
+     */
+    private final Map<String, Integer> aliasIndex;
+    private final Map<String, Integer> handlerIndex;
+
+    /**
+     * Aliases together with their command-line prefixes ("-" for short, "--" for long ones) map to ordinals of their options.
+     * This allows matching command-line tokens as they are, without stripping the prefix first.
+     */
+    private final Map<String, Integer> tokenIndex;
+
+    CompiledOptionList(List<Option> optionList, List<Rule> ruleList) {
+        options = optionList.toArray(new Option[0]);
+        rules = List.copyOf(ruleList);
+
+        aliasIndex = new HashMap<>(options.length * 4);
+        handlerIndex = new HashMap<>(options.length * 2);
+        tokenIndex = new HashMap<>(options.length * 4);
+
+        for (int ordinal = 0; ordinal < options.length; ordinal++) {
+            Option option = options[ordinal];
+            for (String shortAlias : option.shortAliases) {
+                aliasIndex.put(shortAlias, ordinal);
+                tokenIndex.put("-" + shortAlias, ordinal);
+            }
+            for (String longAlias : option.longAliases) {
+                aliasIndex.put(longAlias, ordinal);
+                tokenIndex.put("--" + longAlias, ordinal);
+            }
+            handlerIndex.put(option.handler, ordinal);
+        }
+    }
+
+    /**
+     * @return number of options in the snapshot
+     */
+    public int size() { return options.length; }
+
+    /**
+     * Get option by its ordinal.
+     * @param ordinal position of the option within the snapshotted list
+     * @return Option at the given position
+     */
+    public Option getOption(int ordinal) { return options[ordinal]; }
+
+    /**
+     * Get option by its handler
+     * @return Option if found, null otherwise
+     */
+    public Option getOption(String handler) {
+        int ordinal = ordinalOf(handler);
+        return ordinal < 0 ? null : options[ordinal];
+    }
+
+    /**
+     * Get option by one of its aliases
+     * @return Option if found, null otherwise
+     */
+    public Option findOption(String alias) {
+        int ordinal = ordinalOfAlias(alias);
+        return ordinal < 0 ? null : options[ordinal];
+    }
+
+    /**
+     * Get ordinal of option with provided handler.
+     * @return ordinal if found, -1 otherwise
+     */
+    public int ordinalOf(String handler) {
+        Integer ordinal = handlerIndex.get(handler);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * Get ordinal of option owning provided (short or long) alias.
+     * @return ordinal if found, -1 otherwise
+     */
+    public int ordinalOfAlias(String alias) {
+        Integer ordinal = aliasIndex.get(alias);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * Get ordinal of option matching provided command-line token, e.g. "-a" or "--alpha".
+     * @return ordinal if found, -1 otherwise
+     */
+    public int ordinalOfToken(String token) {
+        Integer ordinal = tokenIndex.get(token);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * Get all rules that were in the OptionList at the time of compilation.
+     * @return An unmodifiable list of Rules
+     */
+    public List<Rule> getRules() { return rules; }
+}
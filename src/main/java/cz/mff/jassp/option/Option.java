@@ -55,6 +55,12 @@ public class Option {
     Extractor<?> extractor = null;
     public Extractor<?> getExtractor() { return extractor; }
 
+    /**
+     * Whether value of this option is parsed on first access instead of during parsing, see {@link OptionBuilder#setLazy()}.
+     */
+    boolean lazy = false;
+    public boolean isLazy() { return lazy; }
+
     /**
      * Create new {@link OptionBuilder} which can be used to create a configured {@link Option} instance.
      * @return a new builder instance.
@@ -97,7 +103,19 @@ public class Option {
      * @return True if string is a single alphabetic character
      */
     public static boolean isValidShortAlias(String alias) {
-        return alias.matches("^[a-zA-Z]$");
+        return isValidShortAlias(alias, 0, alias.length());
+    }
+
+    /**
+     * Check if a region of a character sequence can be considered a short alias.
+     * The region is scanned in place, so that e.g. an alias can be checked without stripping it from its prefix first.
+     * @param seq sequence containing the alias
+     * @param from inclusive start of the region
+     * @param to exclusive end of the region
+     * @return True if region is a single alphabetic character
+     */
+    public static boolean isValidShortAlias(CharSequence seq, int from, int to) {
+        return to - from == 1 && isAsciiLetter(seq.charAt(from));
     }
 
     /**
@@ -105,7 +123,31 @@ public class Option {
      * @return True if string has at least 2 characters, the first being alphabetic, other being alphanumeric.
      */
     public static boolean isValidLongAlias(String alias) {
-        return alias.matches("^[a-zA-Z][a-zA-Z0-9]+$");
+        return isValidLongAlias(alias, 0, alias.length());
+    }
+
+    /**
+     * Check if a region of a character sequence can be considered a long alias.
+     * The region is scanned in place, so that e.g. an alias can be checked without stripping it from its prefix first.
+     * @param seq sequence containing the alias
+     * @param from inclusive start of the region
+     * @param to exclusive end of the region
+     * @return True if region has at least 2 characters, the first being alphabetic, other being alphanumeric.
+     */
+    public static boolean isValidLongAlias(CharSequence seq, int from, int to) {
+        if (to - from < 2 || !isAsciiLetter(seq.charAt(from)))
+            return false;
+
+        for (int i = from + 1; i < to; i++) {
+            char c = seq.charAt(i);
+            if (!isAsciiLetter(c) && (c < '0' || c > '9'))
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
     }
 
 }
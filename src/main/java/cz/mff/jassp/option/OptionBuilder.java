@@ -161,6 +161,22 @@ public class OptionBuilder {
         return this;
     }
 
+    /**
+     * Set that the option's value should be parsed on its first access instead of during parsing,
+     * e.g. when its extractor is expensive and the value is not always needed.
+     * The value is still validated during parsing, so invalid values are rejected the same way.
+     * It is only deferred if the extractor validates cheaply (see {@link Extractor#validatesCheaply()}),
+     * the parsed value is then computed at most once, even if accessed by several threads.
+     * @return this builder's updated instance
+     */
+    public OptionBuilder setLazy() {
+        if (!isActive) {
+            throw new BuilderException("Trying to use an inactive builder.");
+        }
+        builtInstance.lazy = true;
+        return this;
+    }
+
     /**
      * Finalize the building process and return built parser.input.Option instance.
      * Once called, the builder becomes inactive and will be locked from further usage.
@@ -200,5 +216,10 @@ public class OptionBuilder {
         if (builtInstance.extractor == null && builtInstance.required) {
             throw new BuilderException("Flag cannot be required");
         }
+
+        // flag has no value to defer
+        if (builtInstance.extractor == null && builtInstance.lazy) {
+            throw new BuilderException("Flag cannot be lazy");
+        }
     }
 }
\ No newline at end of file
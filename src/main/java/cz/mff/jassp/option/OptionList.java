@@ -15,6 +15,11 @@ public class OptionList {
     private final List<Option> memory = new ArrayList<>();
     private final List<Rule> rules = new ArrayList<>();
 
+    /**
+     * Lazily created snapshot of this list, dropped whenever an option or a rule is added.
+     */
+    private volatile CompiledOptionList compiled = null;
+
     /**
      * Add a new option to the list.
      * @param option parser.input.Option to add
@@ -41,6 +46,7 @@ public class OptionList {
         }
 
         memory.add(option);
+        compiled = null;
     }
 
     /**
@@ -58,10 +64,7 @@ public class OptionList {
      * @return Option if found, null otherwise
      */
     public Option getOption(String handler) {
-        return memory.stream()
-                .filter(option -> Objects.equals(option.getHandler(), handler))
-                .findFirst()
-                .orElse(null);
+        return compile().getOption(handler);
     }
 
     /**
@@ -83,10 +86,7 @@ public class OptionList {
      * @return Option if found, null otherwise
      */
     public Option findOption(String alias) {
-        return memory.stream()
-                .filter(option -> option.getShortAliases().contains(alias) || option.getLongAliases().contains(alias))
-                .findFirst()
-                .orElse(null);
+        return compile().findOption(alias);
     }
 
     /**
@@ -97,6 +97,7 @@ public class OptionList {
     public void addRule(Rule rule) {
         // TODO: newly added rule validation
         rules.add(rule);
+        compiled = null;
     }
 
     /**
@@ -110,6 +111,20 @@ public class OptionList {
         }
     }
 
+    /**
+     * Get a frozen snapshot of current options and rules with indexed lookups.
+     * The snapshot is cached until this list gets modified again.
+     * @return compiled form of this OptionList
+     */
+    public CompiledOptionList compile() {
+        CompiledOptionList result = compiled;
+        if (result == null) {
+            result = new CompiledOptionList(memory, rules);
+            compiled = result;
+        }
+        return result;
+    }
+
     /**
      * Checks whether a provided alias is known in some of its options
      * @param alias alias to check for
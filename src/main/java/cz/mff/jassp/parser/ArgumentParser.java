@@ -1,12 +1,15 @@
 package cz.mff.jassp.parser;
 
-import cz.mff.jassp.processing.logic.LogicException;
+import cz.mff.jassp.option.CompiledOptionList;
 import cz.mff.jassp.option.Option;
 import cz.mff.jassp.option.OptionList;
-import cz.mff.jassp.processing.extractor.Extractor;
-import cz.mff.jassp.processing.logic.Rule;
 
+import java.nio.ByteBuffer;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Main class responsible for handling the parsing process of arguments
@@ -17,6 +20,35 @@ public class ArgumentParser {
     public static final String shortAliasPrefix = "-";
     public static final String longAliasPrefix = "--";
 
+    /**
+     * Parser compiled during the last call of any of the parse methods.
+     * It is reused for as long as the option list stays unmodified.
+     */
+    private volatile CompiledParser lastCompiled = null;
+
+    /**
+     * Compile option specification into a parser which can be reused for any number of parses.
+     * Later modifications of the option list are not reflected by the returned parser.
+     *
+     * @param options OptionList object populated by option specification
+     * @return an immutable, thread-safe parser bound to the current state of options
+     */
+    public static CompiledParser compile(OptionList options) {
+        return new CompiledParser(options.compile());
+    }
+
+    /**
+     * Compile option specification into a parser which caches its results, see {@link CachingParser}.
+     * Later modifications of the option list are not reflected by the returned parser.
+     *
+     * @param options OptionList object populated by option specification
+     * @param maximumSize maximum number of cached results, least recently used ones are evicted first
+     * @return a thread-safe caching parser bound to the current state of options
+     */
+    public static CachingParser compileCaching(OptionList options, int maximumSize) {
+        return new CachingParser(compile(options), maximumSize);
+    }
+
     /**
      * Parse string array using provided option objects.
      *
@@ -25,214 +57,107 @@ public class ArgumentParser {
      * @return ParsedArgList object containing any parsed values matching the options
      */
     public ParsedArgList parse(OptionList options, String[] args) throws ParserException {
-
-        ParsedArgList parsedArgList = new ParsedArgList();
-
-        int i = 0;
-
-        // Option arguments phase
-
-        while (i < args.length) {
-            String token = args[i];
-
-            if (token.equals(plainArgsDelimiter)) {
-                i++;
-                break;
-            }
-
-            // If a plain or an empty string is found, jump to the plain args parsing phase
-            if (token.equals("") || isPlainArg(token)) {
-                break;
-            }
-
-            String optionName = optionToAlias(token);
-            Option optionObj = options.findOption(optionName);
-
-            if (optionObj == null) {
-                throw new ParserException("An undefined option was found during parsing: " + optionName);
-            }
-
-            for (ParsedArgument<?> foundParsedArg : parsedArgList.getParsedArgs()) {
-                if (optionObj.getHandler().equals(foundParsedArg.getHandler())) {
-                    throw new ParserException("An option was found multiple times during parsing: " + optionName);
-                }
-            }
-
-            // Check if the option expects a parameter
-            Extractor<?> optExtractor = optionObj.getExtractor();
-
-            ParsedArgument<?> newParsedArg;
-            if (optExtractor == null) {
-                newParsedArg = new ParsedArgument<>(
-                        optionObj.getHandler(),
-                        token,
-                        true,
-                        true);
-            }
-            else {
-                // Shift to option's value
-                i++;
-
-                if (i == args.length) {
-                    throw new ParserException("Expecting parameter for " + optionName + ", found end of args.");
-                }
-
-                String rawValue = args[i];
-
-                newParsedArg = new ParsedArgument<>(
-                        optionObj.getHandler(),
-                        rawValue,
-                        optExtractor.parse(rawValue),
-                        true);
-            }
-
-            parsedArgList.addParsedArg(newParsedArg);
-            i++;
-        }
-
-        // Plain arguments phase
-
-        while (i < args.length) {
-            if (args[i] == null)
-                throw new ParserException("Args cannot contain null");
-
-            parsedArgList.addPlainArg(args[i]);
-            i++;
-        }
-
-        // Post-processing and validation phase
-
-        checkMandatoryArgs(options, parsedArgList.getParsedArgs());
-
-        fillMissingArgs(options, parsedArgList);
-
-        enforceRules(parsedArgList, options.getAllRules());
-
-
-        return parsedArgList;
+        return compiled(options).parse(args);
     }
 
     /**
-     * Iterates over options and calls their respective toString methods
+     * Parse string array using provided option objects, reporting rejection without throwing.
      *
-     * @param options defined options
+     * @param options OptionList object populated by option specification
+     * @param args String array to parse against the OptionList (e.g., command-line arguments)
+     * @return ParseResult containing either the parsed arguments or the error for which they were rejected
+     * @see CompiledParser#tryParse(String[])
      */
-    public void printHelp(OptionList options) {
-        for (Option option : options.getAllOptions()) {
-            System.out.println(option.toString());
-        }
+    public ParseResult tryParse(OptionList options, String[] args) {
+        return compiled(options).tryParse(args);
     }
 
     /**
-     * Check if string can be considered a short option specifier.
-     * @return True if string starts with a single hyphen "-", which is followed by a valid short alias.
+     * Parse a batch of string arrays using provided option objects in parallel on the common fork/join pool.
+     * The option list is compiled once for the whole batch.
+     *
+     * @param options OptionList object populated by option specification
+     * @param batch String arrays to parse, each of them is parsed as a separate command line
+     * @return results of the string arrays, in the same order
+     * @see CompiledParser#tryParseAll(List, Executor)
      */
-    private static boolean isValidShortOption(String token) {
-        if (token.length() < 2 || !token.startsWith(shortAliasPrefix))
-            return false;
-        return Option.isValidShortAlias(token.substring(1));
+    public List<ParseResult> tryParseAll(OptionList options, List<String[]> batch) {
+        return compiled(options).tryParseAll(batch);
     }
 
     /**
-     * Check if string can be considered a long option specified.
-     * @return True if string starts with 2 hypens "--" and is followed by a valid long alias.
+     * Parse a batch of string arrays using provided option objects in parallel on the given executor.
+     * The option list is compiled once for the whole batch.
+     *
+     * @param options OptionList object populated by option specification
+     * @param batch String arrays to parse, each of them is parsed as a separate command line
+     * @param executor executor running the parses, e.g. a {@link java.util.concurrent.ForkJoinPool}
+     * @return results of the string arrays, in the same order
+     * @see CompiledParser#tryParseAll(List, Executor)
      */
-    private static boolean isValidLongOption(String token) {
-        if (token.length() <= 2 || !token.startsWith(longAliasPrefix))
-            return false;
-        return Option.isValidLongAlias(token.substring(2));
-    }
-
-    private static boolean isPlainArg(String token) {
-        return token.charAt(0) != '-';
+    public List<ParseResult> tryParseAll(OptionList options, List<String[]> batch, Executor executor) {
+        return compiled(options).tryParseAll(batch, executor);
     }
 
     /**
-     * Try to strip option into an alias (either long or short)
-     * @param token incoming option prefixed with "-" or "--"
-     * @return stripped alias if token is a valid option
-     * @throws ParserException if token is an invalid option
+     * Parse a stream of string arrays using provided option objects in parallel.
+     * The option list is compiled once for the whole stream.
+     *
+     * @param options OptionList object populated by option specification
+     * @param batch String arrays to parse, each of them is parsed as a separate command line
+     * @return parallel stream of results of the string arrays, in encounter order of the arrays
+     * @see CompiledParser#tryParseAll(Stream)
      */
-    private static String optionToAlias(String token) {
-        if (token.startsWith(longAliasPrefix)) {
-
-            if (!isValidLongOption(token))
-                throw new ParserException("Option-like token (" + token + ") is an invalid long option");
-
-            return token.substring(2);
-        }
-
-        if (token.startsWith(shortAliasPrefix)) {
-            if (!isValidShortOption(token))
-                throw new ParserException("Option-like token (" + token + ") is an invalid short option");
-
-            return token.substring(1);
-        }
-
-        throw new ParserException("Option-like token (" + token + ") is not option-like at all (this shouldn't occur)");
+    public Stream<ParseResult> tryParseAll(OptionList options, Stream<String[]> batch) {
+        return compiled(options).tryParseAll(batch);
     }
 
     /**
-     * Iterate over all options and check whether any mandatory ones are missing.
-     * @throws ParserException If any mandatory options are not present in parsed options
+     * Parse a stream of arguments using provided option objects, without materializing plain arguments.
+     * Options are parsed eagerly, plain arguments are handed over to the consumer once all options were validated.
+     *
+     * @param options OptionList object populated by option specification
+     * @param args arguments to parse against the OptionList (e.g., tokens read from a pipe, see {@link NulDelimitedTokens})
+     * @param plainArgConsumer callback receiving plain arguments in order
+     * @return ParsedArgList object containing any parsed values matching the options, without plain arguments
      */
-    private static void checkMandatoryArgs(OptionList options, List<ParsedArgument<?>> parsedOptionArguments) {
-        for (Option option : options.getAllOptions()) {
-            if (option.isRequired()) {
-                boolean found = false;
-                for (ParsedArgument<?> parsedOptionArg : parsedOptionArguments) {
-                    if (parsedOptionArg.getHandler().equals(option.getHandler())) {
-                        found = true;
-                        break;
-                    }
-                }
-
-                if (!found) {
-                    throw new ParserException("A mandatory option is missing: " + option.getHandler());
-                }
-            }
-        }
+    public ParsedArgList parse(OptionList options, Iterator<String> args, Consumer<? super String> plainArgConsumer) throws ParserException {
+        return compiled(options).parse(args, plainArgConsumer);
     }
 
     /**
-     * Iterate through all options and if any are missing, in parsed arguments, add an empty parsedArg in their place
+     * Parse a command line stored as NUL-terminated arguments in a byte buffer using provided option objects.
+     *
+     * @param options OptionList object populated by option specification
+     * @param args buffer whose remaining bytes contain the command line (e.g., a slice of a memory-mapped file)
+     * @return ParsedArgList object containing any parsed values matching the options
+     * @see CompiledParser#parse(ByteBuffer)
      */
-    private static void fillMissingArgs(OptionList options, ParsedArgList parsedArgList) {
-        for (Option option : options.getAllOptions()) {
+    public ParsedArgList parse(OptionList options, ByteBuffer args) throws ParserException {
+        return compiled(options).parse(args);
+    }
+
+    private CompiledParser compiled(OptionList options) {
+        CompiledOptionList snapshot = options.compile();
 
-            if (parsedArgList.hasArgument(option.getHandler()))
-                continue;
-
-            ParsedArgument<?> newParsedArg;
-
-            // flags treated separately
-            if (option.getExtractor() == null) {
-                newParsedArg = new ParsedArgument<>(
-                        option.getHandler(),
-                        null,
-                        false,
-                        false);
-            } else {
-                newParsedArg = new ParsedArgument<>(
-                        option.getHandler(),
-                        null,
-                        null,
-                        false);
-            }
-
-            parsedArgList.addParsedArg(newParsedArg);
+        CompiledParser parser = lastCompiled;
+        if (parser == null || parser.getOptions() != snapshot) {
+            parser = new CompiledParser(snapshot);
+            lastCompiled = parser;
         }
+
+        return parser;
     }
 
     /**
-     * Check that created parsed argument list holds up to all invariants specified by rules
-     * @throws LogicException If any invariant is not satisfied
+     * Iterates over options and calls their respective toString methods
+     *
+     * @param options defined options
      */
-    private void enforceRules(ParsedArgList parsedArgList, List<Rule> rules) {
-        for (Rule rule : rules) {
-            if (!rule.holds(parsedArgList))
-                throw new LogicException("A specified rule is not satisfied.");
+    public void printHelp(OptionList options) {
+        for (Option option : options.getAllOptions()) {
+            System.out.println(option.toString());
         }
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,102 @@
+package cz.mff.jassp.parser;
+
+import cz.mff.jassp.option.CompiledOptionList;
+import cz.mff.jassp.option.Option;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static cz.mff.jassp.parser.ArgumentParser.longAliasPrefix;
+import static cz.mff.jassp.parser.ArgumentParser.shortAliasPrefix;
+
+/**
+ * Open-addressing hash table of option tokens ("-a", "--alpha"), which is matched against raw bytes of a buffer.
+ * Aliases are always ASCII, so their bytes are the same in any ASCII-compatible encoding.
+ */
+final class ByteTokenIndex {
+
+    private final byte[][] keys;
+    private final String[] tokens;
+    private final int[] ordinals;
+    private final int mask;
+
+    ByteTokenIndex(CompiledOptionList options) {
+        int count = 0;
+        for (int ordinal = 0; ordinal < options.size(); ordinal++) {
+            Option option = options.getOption(ordinal);
+            count += option.getShortAliases().size() + option.getLongAliases().size();
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(count, 1) * 4 - 1) << 1;
+        keys = new byte[capacity][];
+        tokens = new String[capacity];
+        ordinals = new int[capacity];
+        mask = capacity - 1;
+
+        for (int ordinal = 0; ordinal < options.size(); ordinal++) {
+            Option option = options.getOption(ordinal);
+            for (String shortAlias : option.getShortAliases()) {
+                put(shortAliasPrefix + shortAlias, ordinal);
+            }
+            for (String longAlias : option.getLongAliases()) {
+                put(longAliasPrefix + longAlias, ordinal);
+            }
+        }
+    }
+
+    private void put(String token, int ordinal) {
+        byte[] key = token.getBytes(StandardCharsets.US_ASCII);
+        int slot = hash(key) & mask;
+        while (keys[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        tokens[slot] = token;
+        ordinals[slot] = ordinal;
+    }
+
+    /**
+     * Find a token matching a region of bytes.
+     * @return slot of the matching token, -1 if there is none
+     */
+    int find(ByteBuffer buffer, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + buffer.get(i);
+        }
+
+        int length = end - start;
+        for (int slot = hash & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+            byte[] key = keys[slot];
+            if (key.length == length && matches(key, buffer, start))
+                return slot;
+        }
+        return -1;
+    }
+
+    /**
+     * @return ordinal of option owning the token in the given slot
+     */
+    int ordinal(int slot) { return ordinals[slot]; }
+
+    /**
+     * @return token in the given slot as a string
+     */
+    String token(int slot) { return tokens[slot]; }
+
+    private static boolean matches(byte[] key, ByteBuffer buffer, int start) {
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != buffer.get(start + i))
+                return false;
+        }
+        return true;
+    }
+
+    private static int hash(byte[] key) {
+        int hash = 0;
+        for (byte b : key) {
+            hash = 31 * hash + b;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,170 @@
+package cz.mff.jassp.parser;
+
+import cz.mff.jassp.processing.logic.LogicException;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compiled parser with a bounded cache of parse results, created via {@link ArgumentParser#compileCaching(cz.mff.jassp.option.OptionList, int)}.
+ * Meant for workloads which parse the same command lines over and over again (e.g. a CI orchestrator re-validating
+ * known jobs). Results are keyed by a copy of the whole argument vector and evicted in least-recently-used order
+ * once the cache is full. Rejected command lines are cached as well, so that known-bad command lines are rejected
+ * without running extractors and rules again. Extractors and rules are therefore expected to be deterministic.
+ * Cached {@link ParsedArgList}s are shared by all callers parsing the same command line, and can't be modified.
+ * Command lines matching an option whose values are primitive arrays (e.g. {@link cz.mff.jassp.processing.extractor.IntArrayExtractor})
+ * are therefore not cached, as callers could modify the arrays.
+ * The parser is thread-safe, parses of cache misses run outside of the cache's lock.
+ */
+public final class CachingParser {
+
+    /**
+     * Statistics of the cache since it was created or cleared.
+     * @param hits number of parses answered from the cache
+     * @param misses number of parses which had to be run
+     * @param evictions number of results evicted to keep the cache within its maximum size
+     * @param size number of currently cached results
+     */
+    public record Stats(long hits, long misses, long evictions, int size) {
+
+        /**
+         * @return ratio of parses answered from the cache, 0 if there were none
+         */
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    /**
+     * Copy of an argument vector with its hash computed once.
+     */
+    private static final class Key {
+        private final String[] args;
+        private final int hash;
+
+        Key(String[] args) {
+            this.args = args;
+            this.hash = Arrays.hashCode(args);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && hash == key.hash && Arrays.equals(args, key.args);
+        }
+
+        @Override
+        public int hashCode() { return hash; }
+    }
+
+    private final CompiledParser parser;
+    private final int maximumSize;
+
+    /**
+     * Cached results in access order, guarded by itself.
+     */
+    private final LinkedHashMap<Key, ParseResult> cache;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * Wrap a compiled parser by a cache of its results.
+     * @param parser parser whose results are cached
+     * @param maximumSize maximum number of cached results
+     * @throws IllegalArgumentException if maximum size is not positive
+     */
+    public CachingParser(CompiledParser parser, int maximumSize) {
+        if (maximumSize <= 0)
+            throw new IllegalArgumentException("Maximum cache size must be positive: " + maximumSize);
+
+        this.parser = parser;
+        this.maximumSize = maximumSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, ParseResult> eldest) {
+                if (size() <= CachingParser.this.maximumSize)
+                    return false;
+
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @return the wrapped parser
+     */
+    public CompiledParser getParser() { return parser; }
+
+    /**
+     * @return maximum number of cached results
+     */
+    public int getMaximumSize() { return maximumSize; }
+
+    /**
+     * Parse string array, or return the result of an earlier parse of an equal string array.
+     *
+     * @param args String array to parse (e.g., command-line arguments)
+     * @return ParsedArgList object containing any parsed values matching the options, possibly shared with other callers
+     * @throws ParserException if arguments don't match the specification
+     * @throws LogicException if any of the rules is not satisfied
+     * @see CompiledParser#parse(String[])
+     */
+    public ParsedArgList parse(String[] args) throws ParserException {
+        return tryParse(args).getArgs();
+    }
+
+    /**
+     * Parse string array reporting rejection without throwing, or return the result of an earlier parse of an equal string array.
+     *
+     * @param args String array to parse (e.g., command-line arguments)
+     * @return ParseResult containing either the parsed arguments or the error for which they were rejected
+     * @see CompiledParser#tryParse(String[])
+     */
+    public ParseResult tryParse(String[] args) {
+        Key key = new Key(args.clone());
+
+        synchronized (cache) {
+            ParseResult cached = cache.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+
+        ParseResult result = parser.tryParse(key.args);
+        if (result.isSuccess() && parser.hasArrayValues(result.getArgs()))
+            return result;
+
+        synchronized (cache) {
+            // another thread might have parsed the same arguments meanwhile, keep the first result
+            ParseResult previous = cache.putIfAbsent(key, result);
+            return previous != null ? previous : result;
+        }
+    }
+
+    /**
+     * @return snapshot of statistics of the cache
+     */
+    public Stats getStats() {
+        synchronized (cache) {
+            return new Stats(hits, misses, evictions, cache.size());
+        }
+    }
+
+    /**
+     * Remove all cached results and reset statistics.
+     */
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+            hits = 0;
+            misses = 0;
+            evictions = 0;
+        }
+    }
+}
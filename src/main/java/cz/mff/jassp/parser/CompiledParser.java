@@ -0,0 +1,605 @@
+package cz.mff.jassp.parser;
+
+import cz.mff.jassp.option.CompiledOptionList;
+import cz.mff.jassp.option.Option;
+import cz.mff.jassp.processing.extractor.Extraction;
+import cz.mff.jassp.processing.extractor.Extractor;
+import cz.mff.jassp.processing.extractor.IntArrayExtractor;
+import cz.mff.jassp.processing.extractor.IntExtractor;
+import cz.mff.jassp.processing.extractor.LongArrayExtractor;
+import cz.mff.jassp.processing.extractor.RealArrayExtractor;
+import cz.mff.jassp.processing.extractor.RealExtractor;
+import cz.mff.jassp.processing.logic.LogicException;
+import cz.mff.jassp.processing.logic.CompiledRules;
+import cz.mff.jassp.processing.logic.RuleProgram;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static cz.mff.jassp.parser.ArgumentParser.longAliasPrefix;
+import static cz.mff.jassp.parser.ArgumentParser.plainArgsDelimiter;
+import static cz.mff.jassp.parser.ArgumentParser.shortAliasPrefix;
+
+/**
+ * Parser bound to a single option specification, created via {@link ArgumentParser#compile(cz.mff.jassp.option.OptionList)}.
+ * All options, rules and extractors are snapshotted into arrays once, so that no setup is done per parse.
+ * It holds no mutable state and can be shared between any number of threads.
+ */
+public final class CompiledParser {
+
+    /**
+     * Reason of rejecting values of lazy options, which are only validated during parsing.
+     */
+    private static final String rejectedLazyValueReason = "Value was rejected by extractor";
+
+    private final CompiledOptionList options;
+
+    private final String[] handlers;
+    private final Extractor<?>[] extractors;
+
+    /**
+     * Extractors of options with int and double values, which are stored unboxed. Other entries are null.
+     */
+    private final IntExtractor[] intExtractors;
+    private final RealExtractor[] realExtractors;
+
+    /**
+     * Whether value of an option is only validated during parsing and parsed on first access.
+     */
+    private final boolean[] lazy;
+
+    /**
+     * Bitset of mandatory options, laid out the same way as the presence bitset of {@link ParsedArgList}.
+     */
+    private final long[] requiredBits;
+    private final CompiledRules rules;
+
+    /**
+     * Errors which don't depend on the parsed arguments, so that rejecting them allocates nothing.
+     * Missing mandatory option errors are indexed by ordinals, null for optional options.
+     */
+    private final ParseError[] missingMandatoryErrors;
+    private final ParseError ruleViolatedError;
+
+    /**
+     * Immutable placeholders of options which were not matched, shared by all parsed argument lists, indexed by ordinals.
+     */
+    private final ParsedArgument<?>[] absentArguments;
+
+    /**
+     * Bitset of options whose values are primitive arrays, which can't be shared as they can be modified by their readers.
+     */
+    private final long[] arrayValuedBits;
+
+    private final ByteTokenIndex byteTokens;
+
+    CompiledParser(CompiledOptionList compiledOptions) {
+        options = compiledOptions;
+
+        int size = options.size();
+        handlers = new String[size];
+        extractors = new Extractor<?>[size];
+        intExtractors = new IntExtractor[size];
+        realExtractors = new RealExtractor[size];
+        lazy = new boolean[size];
+        requiredBits = new long[(size + 63) >>> 6];
+        arrayValuedBits = new long[(size + 63) >>> 6];
+        missingMandatoryErrors = new ParseError[size];
+        absentArguments = new ParsedArgument<?>[size];
+
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            Option option = options.getOption(ordinal);
+            handlers[ordinal] = option.getHandler();
+            extractors[ordinal] = option.getExtractor();
+            // subclasses may override validate or parse, so only the built-in classes are parsed unboxed
+            if (extractors[ordinal] != null && extractors[ordinal].getClass() == IntExtractor.class)
+                intExtractors[ordinal] = (IntExtractor) extractors[ordinal];
+            if (extractors[ordinal] != null && extractors[ordinal].getClass() == RealExtractor.class)
+                realExtractors[ordinal] = (RealExtractor) extractors[ordinal];
+            if (extractors[ordinal] instanceof IntArrayExtractor || extractors[ordinal] instanceof LongArrayExtractor
+                    || extractors[ordinal] instanceof RealArrayExtractor)
+                arrayValuedBits[ordinal >>> 6] |= 1L << ordinal;
+            lazy[ordinal] = option.isLazy() && extractors[ordinal] != null && extractors[ordinal].validatesCheaply();
+            // flags treated separately
+            absentArguments[ordinal] = extractors[ordinal] == null
+                    ? new ParsedArgument<>(handlers[ordinal], null, false, false)
+                    : new ParsedArgument<>(handlers[ordinal], null, null, false);
+
+            if (option.isRequired()) {
+                requiredBits[ordinal >>> 6] |= 1L << ordinal;
+                missingMandatoryErrors[ordinal] = new ParseError(ParseError.Kind.MISSING_MANDATORY, handlers[ordinal], -1, null, null);
+            }
+        }
+
+        rules = CompiledRules.compile(options.getRules(), options::ordinalOf);
+        ruleViolatedError = new ParseError(ParseError.Kind.RULE_VIOLATED, null, -1, null, null);
+
+        byteTokens = new ByteTokenIndex(options);
+    }
+
+    /**
+     * @return snapshot of options this parser was compiled from
+     */
+    public CompiledOptionList getOptions() { return options; }
+
+    /**
+     * @return rules of the option list, compiled when this parser was created
+     */
+    public CompiledRules getRules() { return rules; }
+
+    /**
+     * Parse string array using the compiled option specification.
+     *
+     * @param args String array to parse (e.g., command-line arguments)
+     * @return ParsedArgList object containing any parsed values matching the options
+     * @throws ParserException if arguments don't match the specification
+     * @throws LogicException if any of the rules is not satisfied
+     */
+    public ParsedArgList parse(String[] args) throws ParserException {
+        ParsedArgList parsedArgList = new ParsedArgList(options, absentArguments);
+
+        ParseError error = parseInto(parsedArgList, args, null);
+        if (error != null)
+            throw error.toException();
+
+        return parsedArgList;
+    }
+
+    /**
+     * Parse string array using the compiled option specification, reporting rejection without throwing.
+     * Rejected arguments result in a stackless {@link ParseError}, whose message is only formatted when asked for.
+     *
+     * @param args String array to parse (e.g., command-line arguments)
+     * @return ParseResult containing either the parsed arguments or the error for which they were rejected
+     */
+    public ParseResult tryParse(String[] args) {
+        return tryParse(args, null);
+    }
+
+    /**
+     * @param workspace workspace of the calling thread used to evaluate rules, null to allocate one if needed
+     */
+    ParseResult tryParse(String[] args, RuleProgram.Workspace workspace) {
+        ParsedArgList parsedArgList = new ParsedArgList(options, absentArguments);
+
+        ParseError error = parseInto(parsedArgList, args, workspace);
+        if (error != null)
+            return ParseResult.failure(error);
+
+        return ParseResult.success(parsedArgList);
+    }
+
+    /**
+     * Parse a batch of string arrays in parallel on the common fork/join pool.
+     *
+     * @param batch String arrays to parse, each of them is parsed as a separate command line
+     * @return results of the string arrays, in the same order
+     * @see #tryParseAll(List, Executor)
+     */
+    public List<ParseResult> tryParseAll(List<String[]> batch) {
+        return tryParseAll(batch, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parse a batch of string arrays in parallel, reporting rejection of each of them without throwing.
+     * The batch is split into contiguous chunks parsed by the executor's threads (forked recursively if the
+     * executor is a {@link ForkJoinPool}), each chunk reusing its own scratch buffers for all its command lines.
+     *
+     * @param batch String arrays to parse, each of them is parsed as a separate command line
+     * @param executor executor running the chunks, e.g. a {@link ForkJoinPool}
+     * @return results of the string arrays, in the same order
+     */
+    public List<ParseResult> tryParseAll(List<String[]> batch, Executor executor) {
+        return ParseBatch.parse(this, batch.toArray(new String[0][]), executor);
+    }
+
+    /**
+     * Parse a stream of string arrays in parallel, reporting rejection of each of them without throwing.
+     * The returned stream is parallel and lazy, results keep encounter order of the arrays when collected
+     * (or consumed by {@link Stream#forEachOrdered}), so that batches too large for memory can be processed.
+     *
+     * @param batch String arrays to parse, each of them is parsed as a separate command line
+     * @return stream of results of the string arrays
+     */
+    public Stream<ParseResult> tryParseAll(Stream<String[]> batch) {
+        return StreamSupport.stream(new ParseBatch.Results(this, batch.spliterator()), true).onClose(batch::close);
+    }
+
+    private ParseError parseInto(ParsedArgList parsedArgList, String[] args, RuleProgram.Workspace workspace) {
+        int i = 0;
+
+        // Option arguments phase
+
+        while (i < args.length) {
+            String token = args[i];
+
+            if (token.equals(plainArgsDelimiter)) {
+                i++;
+                break;
+            }
+
+            // If a plain or an empty string is found, jump to the plain args parsing phase
+            if (token.equals("") || isPlainArg(token)) {
+                break;
+            }
+
+            int ordinal = options.ordinalOfToken(token);
+            if (ordinal < 0 || parsedArgList.isMatched(ordinal)) {
+                return unmatchedOption(token, i, ordinal);
+            }
+
+            if (extractors[ordinal] == null) {
+                addFlag(parsedArgList, ordinal, token);
+            }
+            else {
+                // Shift to option's value
+                i++;
+
+                if (i == args.length) {
+                    return new ParseError(ParseError.Kind.MISSING_PARAMETER, handlers[ordinal], i - 1, token, null);
+                }
+
+                ParseError error = addValue(parsedArgList, ordinal, args[i], i);
+                if (error != null)
+                    return error;
+            }
+
+            i++;
+        }
+
+        // Plain arguments phase
+
+        while (i < args.length) {
+            if (args[i] == null)
+                return new ParseError(ParseError.Kind.NULL_ARGUMENT, null, i, null, null);
+
+            parsedArgList.addPlainArg(args[i]);
+            i++;
+        }
+
+        // Post-processing and validation phase
+
+        return finish(parsedArgList, workspace);
+    }
+
+    /**
+     * Parse a stream of arguments using the compiled option specification, without materializing plain arguments.
+     * Options are parsed and validated eagerly, plain arguments are then handed over to the consumer one by one,
+     * so that memory stays flat regardless of how many plain arguments follow.
+     * The consumer is only called once all options were parsed and validated.
+     *
+     * @param args arguments to parse (e.g., tokens read from a pipe, see {@link NulDelimitedTokens})
+     * @param plainArgConsumer callback receiving plain arguments in order
+     * @return ParsedArgList object containing any parsed values matching the options, without plain arguments
+     * @throws ParserException if arguments don't match the specification
+     * @throws LogicException if any of the rules is not satisfied
+     */
+    public ParsedArgList parse(Iterator<String> args, Consumer<? super String> plainArgConsumer) throws ParserException {
+
+        ParsedArgList parsedArgList = new ParsedArgList(options, absentArguments);
+
+        String firstPlainArg = null;
+        int i = 0;
+
+        // Option arguments phase
+
+        while (args.hasNext()) {
+            String token = args.next();
+
+            if (token.equals(plainArgsDelimiter)) {
+                break;
+            }
+
+            // If a plain or an empty string is found, jump to the plain args parsing phase
+            if (token.equals("") || isPlainArg(token)) {
+                firstPlainArg = token;
+                break;
+            }
+
+            int ordinal = options.ordinalOfToken(token);
+            if (ordinal < 0 || parsedArgList.isMatched(ordinal)) {
+                throw unmatchedOption(token, i, ordinal).toException();
+            }
+
+            if (extractors[ordinal] == null) {
+                addFlag(parsedArgList, ordinal, token);
+            }
+            else {
+                if (!args.hasNext()) {
+                    throw new ParseError(ParseError.Kind.MISSING_PARAMETER, handlers[ordinal], i, token, null).toException();
+                }
+
+                ParseError error = addValue(parsedArgList, ordinal, args.next(), ++i);
+                if (error != null)
+                    throw error.toException();
+            }
+
+            i++;
+        }
+
+        // Post-processing and validation phase
+
+        ParseError error = finish(parsedArgList, null);
+        if (error != null)
+            throw error.toException();
+
+        // Plain arguments phase
+
+        if (firstPlainArg != null) {
+            plainArgConsumer.accept(firstPlainArg);
+        }
+
+        while (args.hasNext()) {
+            String plainArg = args.next();
+            if (plainArg == null)
+                throw new ParserException("Args cannot contain null");
+
+            plainArgConsumer.accept(plainArg);
+        }
+
+        return parsedArgList;
+    }
+
+    /**
+     * Parse a stream of arguments using the compiled option specification, without materializing plain arguments.
+     * @see #parse(Iterator, Consumer)
+     */
+    public ParsedArgList parse(Stream<String> args, Consumer<? super String> plainArgConsumer) throws ParserException {
+        return parse(args.iterator(), plainArgConsumer);
+    }
+
+    /**
+     * Parse a command line stored as NUL-terminated arguments in a byte buffer, see {@link NulDelimitedBytes}.
+     * Option tokens are matched against the raw bytes, strings are only created for values passed to extractors
+     * and for plain arguments (both decoded as UTF-8). Flags reuse the option's token as their raw value.
+     * The buffer is not modified, so e.g. a slice of a memory-mapped file can be parsed directly.
+     *
+     * @param args buffer whose remaining bytes contain the command line
+     * @return ParsedArgList object containing any parsed values matching the options
+     * @throws ParserException if arguments don't match the specification
+     * @throws LogicException if any of the rules is not satisfied
+     */
+    public ParsedArgList parse(ByteBuffer args) throws ParserException {
+        ParsedArgList parsedArgList = new ParsedArgList(options, absentArguments);
+
+        ParseError error = parseInto(parsedArgList, args);
+        if (error != null)
+            throw error.toException();
+
+        return parsedArgList;
+    }
+
+    /**
+     * Parse a command line stored as NUL-terminated arguments in a byte buffer, reporting rejection without throwing.
+     *
+     * @param args buffer whose remaining bytes contain the command line
+     * @return ParseResult containing either the parsed arguments or the error for which they were rejected
+     * @see #parse(ByteBuffer)
+     */
+    public ParseResult tryParse(ByteBuffer args) {
+        ParsedArgList parsedArgList = new ParsedArgList(options, absentArguments);
+
+        ParseError error = parseInto(parsedArgList, args);
+        if (error != null)
+            return ParseResult.failure(error);
+
+        return ParseResult.success(parsedArgList);
+    }
+
+    private ParseError parseInto(ParsedArgList parsedArgList, ByteBuffer args) {
+        NulDelimitedBytes tokens = new NulDelimitedBytes(args);
+
+        boolean hasToken = tokens.next();
+        int i = 0;
+
+        // Option arguments phase
+
+        while (hasToken) {
+            int length = tokens.length();
+
+            // If a plain or an empty string is found, jump to the plain args parsing phase
+            if (length == 0 || tokens.byteAt(0) != '-') {
+                break;
+            }
+
+            if (length == 2 && tokens.byteAt(1) == '-') {
+                hasToken = tokens.next();
+                break;
+            }
+
+            int slot = byteTokens.find(args, tokens.start(), tokens.end());
+            if (slot < 0) {
+                return unmatchedOption(tokens.decode(), i, -1);
+            }
+
+            int ordinal = byteTokens.ordinal(slot);
+            String token = byteTokens.token(slot);
+
+            if (parsedArgList.isMatched(ordinal)) {
+                return unmatchedOption(token, i, ordinal);
+            }
+
+            if (extractors[ordinal] == null) {
+                addFlag(parsedArgList, ordinal, token);
+            }
+            else {
+                if (!tokens.next()) {
+                    return new ParseError(ParseError.Kind.MISSING_PARAMETER, handlers[ordinal], i, token, null);
+                }
+
+                ParseError error = addValue(parsedArgList, ordinal, tokens.decode(), ++i);
+                if (error != null)
+                    return error;
+            }
+
+            hasToken = tokens.next();
+            i++;
+        }
+
+        // Plain arguments phase
+
+        while (hasToken) {
+            parsedArgList.addPlainArg(tokens.decode());
+            hasToken = tokens.next();
+        }
+
+        // Post-processing and validation phase
+
+        return finish(parsedArgList, null);
+    }
+
+    /**
+     * Describe why an option-like token couldn't be matched to an option, which wasn't matched yet.
+     * @param ordinal ordinal of the token's option, negative if token is not a known option
+     */
+    private ParseError unmatchedOption(String token, int tokenIndex, int ordinal) {
+        if (ordinal >= 0) {
+            return new ParseError(ParseError.Kind.DUPLICATE_OPTION, handlers[ordinal], tokenIndex, token, null);
+        }
+
+        return undefinedOption(token, tokenIndex);
+    }
+
+    /**
+     * Describe why an option-like token doesn't match any option.
+     */
+    static ParseError undefinedOption(String token, int tokenIndex) {
+        // Tokens of known aliases are always valid, so the token is only scanned when it isn't known
+        ParseError.Kind kind = aliasOffset(token) < 0 ? ParseError.Kind.INVALID_OPTION : ParseError.Kind.UNDEFINED_OPTION;
+        return new ParseError(kind, null, tokenIndex, token, null);
+    }
+
+    private void addFlag(ParsedArgList parsedArgList, int ordinal, String token) {
+        parsedArgList.addParsedArg(ordinal, new ParsedArgument<>(
+                handlers[ordinal],
+                token,
+                true,
+                true));
+    }
+
+    /**
+     * Extract value of an option and add it to parsed arguments.
+     * @return error if the value was rejected by the extractor, null otherwise
+     */
+    private ParseError addValue(ParsedArgList parsedArgList, int ordinal, String rawValue, int tokenIndex) {
+        ParsedArgument<?> newParsedArg;
+
+        if (intExtractors[ordinal] != null) {
+            long result = intExtractors[ordinal].parseOrFailure(rawValue);
+            String reason = intExtractors[ordinal].failureReason(result);
+            if (reason != null)
+                return rejectedValue(ordinal, rawValue, tokenIndex, reason);
+
+            newParsedArg = PrimitiveArgument.ofInt(handlers[ordinal], rawValue, (int) result);
+        }
+        else if (realExtractors[ordinal] != null) {
+            long result = realExtractors[ordinal].parseOrFailure(rawValue);
+            String reason = realExtractors[ordinal].failureReason(result);
+            if (reason != null)
+                return rejectedValue(ordinal, rawValue, tokenIndex, reason);
+
+            newParsedArg = PrimitiveArgument.ofReal(handlers[ordinal], rawValue, Double.longBitsToDouble(result));
+        }
+        else if (lazy[ordinal]) {
+            if (!extractors[ordinal].validate(rawValue))
+                return rejectedValue(ordinal, rawValue, tokenIndex, rejectedLazyValueReason);
+
+            newParsedArg = new LazyArgument<>(handlers[ordinal], rawValue, extractors[ordinal]);
+        }
+        else {
+            Extraction<?> extraction = extractors[ordinal].extract(rawValue);
+            if (!extraction.isSuccess())
+                return new ParseError(ParseError.Kind.INVALID_VALUE, handlers[ordinal], tokenIndex, rawValue,
+                        extraction.getReason(), extraction.getCause());
+
+            newParsedArg = new ParsedArgument<>(
+                    handlers[ordinal],
+                    rawValue,
+                    extraction.getValue(),
+                    true);
+        }
+
+        parsedArgList.addParsedArg(ordinal, newParsedArg);
+        return null;
+    }
+
+    private ParseError rejectedValue(int ordinal, String rawValue, int tokenIndex, String reason) {
+        return new ParseError(ParseError.Kind.INVALID_VALUE, handlers[ordinal], tokenIndex, rawValue, reason);
+    }
+
+    /**
+     * Check parsed options once all of them were found.
+     * @return error if a mandatory option is missing or a rule is not satisfied, null otherwise
+     */
+    private ParseError finish(ParsedArgList parsedArgList, RuleProgram.Workspace workspace) {
+        ParseError error = checkMandatoryArgs(parsedArgList);
+        if (error != null)
+            return error;
+
+        return enforceRules(parsedArgList, workspace);
+    }
+
+    private static boolean isPlainArg(String token) {
+        return token.charAt(0) != '-';
+    }
+
+    /**
+     * Scan option-like token in place and find where its alias starts.
+     * @param token incoming option prefixed with "-" or "--"
+     * @return offset of the alias if token is a valid option, -1 otherwise
+     */
+    private static int aliasOffset(String token) {
+        if (token.startsWith(longAliasPrefix)) {
+            int offset = longAliasPrefix.length();
+            return Option.isValidLongAlias(token, offset, token.length()) ? offset : -1;
+        }
+
+        int offset = shortAliasPrefix.length();
+        return Option.isValidShortAlias(token, offset, token.length()) ? offset : -1;
+    }
+
+    /**
+     * @return True if an option whose values are primitive arrays was matched, so that the list can't be shared by its readers
+     */
+    boolean hasArrayValues(ParsedArgList parsedArgList) {
+        long[] presence = parsedArgList.presence();
+        for (int word = 0; word < arrayValuedBits.length; word++) {
+            if ((arrayValuedBits[word] & presence[word]) != 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Compare required options with matched ones, 64 options at a time.
+     * @return preallocated error of the first mandatory option not present in parsed options, null if there is none
+     */
+    private ParseError checkMandatoryArgs(ParsedArgList parsedArgList) {
+        long[] presence = parsedArgList.presence();
+        for (int word = 0; word < requiredBits.length; word++) {
+            long missing = requiredBits[word] & ~presence[word];
+            if (missing != 0) {
+                return missingMandatoryErrors[(word << 6) + Long.numberOfTrailingZeros(missing)];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check that created parsed argument list holds up to all invariants specified by rules
+     * @param workspace workspace of the calling thread, null to allocate one
+     * @return preallocated error if any invariant is not satisfied, null otherwise
+     */
+    private ParseError enforceRules(ParsedArgList parsedArgList, RuleProgram.Workspace workspace) {
+        boolean holds = workspace == null
+                ? rules.holds(parsedArgList.presence(), parsedArgList)
+                : rules.holds(parsedArgList.presence(), parsedArgList, workspace);
+        return holds ? null : ruleViolatedError;
+    }
+}
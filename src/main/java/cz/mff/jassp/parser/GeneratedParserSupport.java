@@ -0,0 +1,82 @@
+package cz.mff.jassp.parser;
+
+import cz.mff.jassp.processing.extractor.Extraction;
+
+/**
+ * Runtime support of parsers generated by {@link cz.mff.jassp.annotation.ArgumentsProcessor}.
+ * Generated parsers report rejected arguments through these methods, so that they throw the same exceptions
+ * with the same messages as {@link CompiledParser#parse(String[])} does. They are not meant to be called directly.
+ */
+public final class GeneratedParserSupport {
+
+    private GeneratedParserSupport() {}
+
+    /**
+     * @param token option-like token which doesn't match any option
+     * @param tokenIndex index of the token
+     * @return exception to throw
+     */
+    public static RuntimeException undefinedOption(String token, int tokenIndex) {
+        return CompiledParser.undefinedOption(token, tokenIndex).toException();
+    }
+
+    /**
+     * @param handler handler of the option found again
+     * @param token token of the option
+     * @param tokenIndex index of the token
+     * @return exception to throw
+     */
+    public static RuntimeException duplicateOption(String handler, String token, int tokenIndex) {
+        return new ParseError(ParseError.Kind.DUPLICATE_OPTION, handler, tokenIndex, token, null).toException();
+    }
+
+    /**
+     * @param handler handler of the option whose parameter is missing
+     * @param token token of the option, which was the last argument
+     * @param tokenIndex index of the token
+     * @return exception to throw
+     */
+    public static RuntimeException missingParameter(String handler, String token, int tokenIndex) {
+        return new ParseError(ParseError.Kind.MISSING_PARAMETER, handler, tokenIndex, token, null).toException();
+    }
+
+    /**
+     * @param tokenIndex index of the null plain argument
+     * @return exception to throw
+     */
+    public static RuntimeException nullArgument(int tokenIndex) {
+        return new ParseError(ParseError.Kind.NULL_ARGUMENT, null, tokenIndex, null, null).toException();
+    }
+
+    /**
+     * @param handler handler of the missing option
+     * @return exception to throw
+     */
+    public static RuntimeException missingMandatory(String handler) {
+        return new ParseError(ParseError.Kind.MISSING_MANDATORY, handler, -1, null, null).toException();
+    }
+
+    /**
+     * @return exception to throw
+     */
+    public static RuntimeException ruleViolated() {
+        return new ParseError(ParseError.Kind.RULE_VIOLATED, null, -1, null, null).toException();
+    }
+
+    /**
+     * Unwrap extracted value of an option.
+     * @param extraction result of the option's extractor
+     * @param handler handler of the option
+     * @param rawValue extracted parameter
+     * @param tokenIndex index of the parameter
+     * @return extracted value
+     * @throws cz.mff.jassp.processing.extractor.ExtractorException if the parameter was rejected by the extractor
+     */
+    public static <T> T value(Extraction<T> extraction, String handler, String rawValue, int tokenIndex) {
+        if (!extraction.isSuccess())
+            throw new ParseError(ParseError.Kind.INVALID_VALUE, handler, tokenIndex, rawValue,
+                    extraction.getReason(), extraction.getCause()).toException();
+
+        return extraction.getValue();
+    }
+}
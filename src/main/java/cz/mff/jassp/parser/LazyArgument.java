@@ -0,0 +1,35 @@
+package cz.mff.jassp.parser;
+
+import cz.mff.jassp.processing.extractor.Extractor;
+
+/**
+ * Parsed argument of a lazy option, whose already validated raw value is only parsed when requested through {@link #getValue()}.
+ * The value is parsed at most once, even if requested by several threads at once.
+ * If parsing fails, its exception is rethrown on each request.
+ */
+final class LazyArgument<T> extends ParsedArgument<T> {
+
+    private final Extractor<T> extractor;
+
+    private volatile boolean parsed = false;
+    private T value;
+
+    LazyArgument(String handler, String rawValue, Extractor<T> extractor) {
+        super(handler, rawValue, null, true);
+        this.extractor = extractor;
+    }
+
+    @Override
+    public T getValue() {
+        // value is published by the volatile write of the flag
+        if (!parsed) {
+            synchronized (this) {
+                if (!parsed) {
+                    value = extractor.parse(getRawValue());
+                    parsed = true;
+                }
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,95 @@
+package cz.mff.jassp.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tokenizer of a command line stored as NUL-terminated arguments in a byte buffer
+ * (the format of e.g. {@code /proc/<pid>/cmdline}). The last argument doesn't have to be terminated.
+ * Tokens are only located, not copied; a token is decoded (as UTF-8) into a string only when asked to.
+ * The region between position and limit of the buffer is tokenized, the buffer itself is never modified,
+ * so it can be a slice of a memory-mapped file.
+ */
+public final class NulDelimitedBytes {
+
+    private static final byte DELIMITER = 0;
+
+    private final ByteBuffer buffer;
+    private final int limit;
+
+    private int start;
+    private int end;
+
+    /**
+     * @param source buffer whose remaining bytes contain the arguments
+     */
+    public NulDelimitedBytes(ByteBuffer source) {
+        buffer = source;
+        limit = source.limit();
+        start = source.position();
+        end = start - 1;
+    }
+
+    /**
+     * Move to the next token.
+     * @return True if there is a next token, false if the end of the region was reached
+     */
+    public boolean next() {
+        int from = end + 1;
+        if (from >= limit) {
+            start = end = limit;
+            return false;
+        }
+
+        int to = from;
+        while (to < limit && buffer.get(to) != DELIMITER) {
+            to++;
+        }
+
+        start = from;
+        end = to;
+        return true;
+    }
+
+    /**
+     * @return buffer being tokenized
+     */
+    public ByteBuffer buffer() { return buffer; }
+
+    /**
+     * @return absolute index of the current token's first byte
+     */
+    public int start() { return start; }
+
+    /**
+     * @return absolute index right after the current token's last byte
+     */
+    public int end() { return end; }
+
+    /**
+     * @return number of bytes of the current token
+     */
+    public int length() { return end - start; }
+
+    /**
+     * @param index index within the current token
+     * @return byte of the current token at the given index
+     */
+    public byte byteAt(int index) { return buffer.get(start + index); }
+
+    /**
+     * Decode the current token into a string.
+     * @return current token decoded as UTF-8
+     */
+    public String decode() {
+        int length = end - start;
+
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, length, StandardCharsets.UTF_8);
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
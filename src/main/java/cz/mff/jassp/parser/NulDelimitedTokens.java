@@ -0,0 +1,101 @@
+package cz.mff.jassp.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator over arguments read from a character stream, in which each argument is terminated by a NUL character
+ * (as produced by e.g. {@code find -print0} or {@code xargs -0}). The last argument doesn't have to be terminated.
+ * Arguments are read lazily, one at a time, so it can be used with {@link CompiledParser#parse(Iterator, java.util.function.Consumer)}
+ * to parse arbitrarily long inputs.
+ */
+public final class NulDelimitedTokens implements Iterator<String> {
+
+    private static final char DELIMITER = '\0';
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder token = new StringBuilder();
+
+    private int position = 0;
+    private int limit = 0;
+    private boolean exhausted = false;
+    private String next = null;
+
+    /**
+     * @param source reader of NUL-delimited arguments, it is not closed by the iterator
+     */
+    public NulDelimitedTokens(Reader source) {
+        reader = source;
+    }
+
+    /**
+     * @throws UncheckedIOException if reading from the underlying reader fails
+     */
+    @Override
+    public boolean hasNext() {
+        if (next == null)
+            next = readToken();
+        return next != null;
+    }
+
+    /**
+     * @throws UncheckedIOException if reading from the underlying reader fails
+     */
+    @Override
+    public String next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        String result = next;
+        next = null;
+        return result;
+    }
+
+    /**
+     * Read characters up to the next delimiter.
+     * @return the read argument, null if there are no more arguments
+     */
+    private String readToken() {
+        token.setLength(0);
+
+        while (true) {
+            if (position == limit) {
+                if (exhausted || !fill()) {
+                    // unterminated last argument
+                    return token.length() > 0 ? token.toString() : null;
+                }
+            }
+
+            for (int i = position; i < limit; i++) {
+                if (buffer[i] == DELIMITER) {
+                    token.append(buffer, position, i - position);
+                    position = i + 1;
+                    return token.toString();
+                }
+            }
+
+            token.append(buffer, position, limit - position);
+            position = limit;
+        }
+    }
+
+    private boolean fill() {
+        try {
+            int read = reader.read(buffer);
+            if (read < 0) {
+                exhausted = true;
+                return false;
+            }
+            position = 0;
+            limit = read;
+            return true;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to read arguments.", e);
+        }
+    }
+}
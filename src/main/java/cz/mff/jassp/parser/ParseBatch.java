@@ -0,0 +1,156 @@
+package cz.mff.jassp.parser;
+
+import cz.mff.jassp.processing.logic.RuleProgram;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Parallel parse of a batch of command lines by a single compiled parser, see {@link CompiledParser#tryParseAll(List, Executor)}.
+ * Each task parses a contiguous range of the batch into its own slots of the result array,
+ * so that results keep the order of the batch without any synchronization between tasks.
+ */
+@SuppressWarnings("serial") // tasks are never serialized
+final class ParseBatch extends RecursiveAction {
+
+    /**
+     * Number of chunks per thread, so that threads finishing early can take over the work of slower ones.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final CompiledParser parser;
+    private final String[][] batch;
+    private final ParseResult[] results;
+    private final int from;
+    private final int to;
+    private final int chunkSize;
+
+    private ParseBatch(CompiledParser parser, String[][] batch, ParseResult[] results, int from, int to, int chunkSize) {
+        this.parser = parser;
+        this.batch = batch;
+        this.results = results;
+        this.from = from;
+        this.to = to;
+        this.chunkSize = chunkSize;
+    }
+
+    static List<ParseResult> parse(CompiledParser parser, String[][] batch, Executor executor) {
+        ParseResult[] results = new ParseResult[batch.length];
+        if (batch.length == 0)
+            return List.of();
+
+        int threads = executor instanceof ForkJoinPool pool
+                ? pool.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        int chunkSize = Math.max(1, batch.length / (threads * CHUNKS_PER_THREAD));
+
+        if (executor instanceof ForkJoinPool pool) {
+            pool.invoke(new ParseBatch(parser, batch, results, 0, batch.length, chunkSize));
+        }
+        else {
+            int chunkCount = (batch.length + chunkSize - 1) / chunkSize;
+            CompletableFuture<?>[] chunks = new CompletableFuture<?>[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                int from = i * chunkSize;
+                int to = Math.min(batch.length, from + chunkSize);
+                chunks[i] = CompletableFuture.runAsync(() -> parseRange(parser, batch, results, from, to), executor);
+            }
+
+            try {
+                CompletableFuture.allOf(chunks).join();
+            }
+            catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause)
+                    throw cause;
+                if (e.getCause() instanceof Error cause)
+                    throw cause;
+                throw e;
+            }
+        }
+
+        return Collections.unmodifiableList(Arrays.asList(results));
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= chunkSize) {
+            parseRange(parser, batch, results, from, to);
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        invokeAll(new ParseBatch(parser, batch, results, from, mid, chunkSize),
+                new ParseBatch(parser, batch, results, mid, to, chunkSize));
+    }
+
+    /**
+     * Sequentially parse a range of the batch, all command lines of the range share a single rule workspace.
+     */
+    private static void parseRange(CompiledParser parser, String[][] batch, ParseResult[] results, int from, int to) {
+        RuleProgram.Workspace workspace = new RuleProgram.Workspace();
+        for (int i = from; i < to; i++) {
+            results[i] = parseItem(parser, batch[i], workspace);
+        }
+    }
+
+    /**
+     * Parse a single command line of a batch, so that an exception thrown while parsing it (e.g. for a null option token
+     * or by a custom extractor) only fails that command line instead of the whole batch.
+     */
+    private static ParseResult parseItem(CompiledParser parser, String[] args, RuleProgram.Workspace workspace) {
+        try {
+            return parser.tryParse(args, workspace);
+        }
+        catch (RuntimeException e) {
+            return ParseResult.failure(new ParseError(ParseError.Kind.EXCEPTION_THROWN, null, -1, null, null, e));
+        }
+    }
+
+    /**
+     * Parses string arrays of a stream lazily, see {@link CompiledParser#tryParseAll(java.util.stream.Stream)}.
+     * Each split of the stream is traversed by a single thread at a time, so it reuses its own rule workspace
+     * for all its command lines.
+     */
+    static final class Results implements Spliterator<ParseResult> {
+        private final CompiledParser parser;
+        private final Spliterator<String[]> batch;
+        private final RuleProgram.Workspace workspace = new RuleProgram.Workspace();
+
+        Results(CompiledParser parser, Spliterator<String[]> batch) {
+            this.parser = parser;
+            this.batch = batch;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super ParseResult> action) {
+            return batch.tryAdvance(args -> action.accept(parseItem(parser, args, workspace)));
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super ParseResult> action) {
+            batch.forEachRemaining(args -> action.accept(parseItem(parser, args, workspace)));
+        }
+
+        @Override
+        public Spliterator<ParseResult> trySplit() {
+            Spliterator<String[]> prefix = batch.trySplit();
+            return prefix == null ? null : new Results(parser, prefix);
+        }
+
+        @Override
+        public long estimateSize() { return batch.estimateSize(); }
+
+        @Override
+        public int characteristics() {
+            return batch.characteristics() & (ORDERED | SIZED | SUBSIZED) | NONNULL;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package cz.mff.jassp.parser;
+
+import cz.mff.jassp.processing.extractor.ExtractorException;
+import cz.mff.jassp.processing.logic.LogicException;
+
+import static cz.mff.jassp.parser.ArgumentParser.longAliasPrefix;
+import static cz.mff.jassp.parser.ArgumentParser.shortAliasPrefix;
+
+/**
+ * Lightweight description of why arguments were rejected, returned by {@link CompiledParser#tryParse(String[])}.
+ * Unlike exceptions it captures no stack trace, and its message is only formatted when asked for.
+ * Errors which don't depend on the input (missing mandatory options, broken rules) are preallocated by the parser.
+ */
+public final class ParseError {
+
+    public enum Kind {
+        /** Option-like token doesn't match any option. */
+        UNDEFINED_OPTION,
+        /** Option-like token is not a valid short nor long option. */
+        INVALID_OPTION,
+        /** Option was found more than once. */
+        DUPLICATE_OPTION,
+        /** Option expecting a parameter was the last argument. */
+        MISSING_PARAMETER,
+        /** Parameter of an option was rejected by its extractor. */
+        INVALID_VALUE,
+        /** Plain argument is null. */
+        NULL_ARGUMENT,
+        /** Mandatory option was not found. */
+        MISSING_MANDATORY,
+        /** A rule is not satisfied. */
+        RULE_VIOLATED,
+        /** Parsing a command line of a batch threw an exception (see {@link #getCause()}), e.g. a custom extractor failed. */
+        EXCEPTION_THROWN
+    }
+
+    private final Kind kind;
+    private final String handler;
+    private final int tokenIndex;
+    private final String token;
+    private final String reason;
+    private final Throwable cause;
+
+    ParseError(Kind kind, String handler, int tokenIndex, String token, String reason) {
+        this(kind, handler, tokenIndex, token, reason, null);
+    }
+
+    ParseError(Kind kind, String handler, int tokenIndex, String token, String reason, Throwable cause) {
+        this.kind = kind;
+        this.handler = handler;
+        this.tokenIndex = tokenIndex;
+        this.token = token;
+        this.reason = reason;
+        this.cause = cause;
+    }
+
+    /**
+     * @return kind of the error
+     */
+    public Kind getKind() { return kind; }
+
+    /**
+     * @return handler of the option which caused the error, null if no option was matched (e.g. for undefined options)
+     */
+    public String getHandler() { return handler; }
+
+    /**
+     * @return index of the offending argument, -1 if the error was found after all arguments were read
+     */
+    public int getTokenIndex() { return tokenIndex; }
+
+    /**
+     * @return the offending argument (an option token or a rejected value), null if there is none
+     */
+    public String getToken() { return token; }
+
+    /**
+     * @return exception thrown by the extractor which rejected a value or by parsing a command line of a batch, null if there is none
+     */
+    public Throwable getCause() { return cause; }
+
+    /**
+     * Format the error message. It is the same message as the one of the exception thrown by {@link CompiledParser#parse(String[])}.
+     * @return description of the error
+     */
+    public String getMessage() {
+        return switch (kind) {
+            case UNDEFINED_OPTION -> "An undefined option was found during parsing: " + alias();
+            case INVALID_OPTION -> "Option-like token (" + token + ") is an invalid "
+                    + (token.startsWith(longAliasPrefix) ? "long" : "short") + " option";
+            case DUPLICATE_OPTION -> "An option was found multiple times during parsing: " + alias();
+            case MISSING_PARAMETER -> "Expecting parameter for " + alias() + ", found end of args.";
+            case INVALID_VALUE -> reason + ": " + token;
+            case NULL_ARGUMENT -> "Args cannot contain null";
+            case MISSING_MANDATORY -> "A mandatory option is missing: " + handler;
+            case RULE_VIOLATED -> "A specified rule is not satisfied.";
+            case EXCEPTION_THROWN -> "Parsing threw an exception: " + cause;
+        };
+    }
+
+    /**
+     * Convert the error into the exception which {@link CompiledParser#parse(String[])} throws for it.
+     * @return {@link ExtractorException} for rejected values, {@link LogicException} for broken rules,
+     *         the exception itself if one was thrown, {@link ParserException} otherwise
+     */
+    public RuntimeException toException() {
+        if (kind == Kind.EXCEPTION_THROWN && cause instanceof RuntimeException thrown)
+            return thrown;
+
+        return switch (kind) {
+            case INVALID_VALUE -> new ExtractorException(getMessage(), cause);
+            case RULE_VIOLATED -> new LogicException(getMessage());
+            default -> new ParserException(getMessage());
+        };
+    }
+
+    @Override
+    public String toString() {
+        return kind + ": " + getMessage();
+    }
+
+    private String alias() {
+        return token.substring(token.startsWith(longAliasPrefix) ? longAliasPrefix.length() : shortAliasPrefix.length());
+    }
+}
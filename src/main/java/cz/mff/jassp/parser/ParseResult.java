@@ -0,0 +1,43 @@
+package cz.mff.jassp.parser;
+
+/**
+ * Result of {@link CompiledParser#tryParse(String[])}, which is either the parsed arguments or an error.
+ */
+public final class ParseResult {
+
+    private final ParsedArgList args;
+    private final ParseError error;
+
+    private ParseResult(ParsedArgList args, ParseError error) {
+        this.args = args;
+        this.error = error;
+    }
+
+    static ParseResult success(ParsedArgList args) {
+        return new ParseResult(args, null);
+    }
+
+    static ParseResult failure(ParseError error) {
+        return new ParseResult(null, error);
+    }
+
+    /**
+     * @return True if arguments were parsed, false if they were rejected
+     */
+    public boolean isSuccess() { return error == null; }
+
+    /**
+     * @return error for which arguments were rejected, null if they were parsed
+     */
+    public ParseError getError() { return error; }
+
+    /**
+     * @return parsed arguments
+     * @throws RuntimeException exception of the error (see {@link ParseError#toException()}) if arguments were rejected
+     */
+    public ParsedArgList getArgs() {
+        if (error != null)
+            throw error.toException();
+        return args;
+    }
+}
@@ -1,41 +1,60 @@
 package cz.mff.jassp.parser;
 
+import cz.mff.jassp.option.CompiledOptionList;
 import cz.mff.jassp.option.OptionList;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 
 /**
  * A wrapper for individual {@link ParsedArgument}s, is constructed during the {@link ArgumentParser#parse(OptionList, String[])}
  * Similarly to how {@link cz.mff.jassp.option.OptionList} wraps {@link cz.mff.jassp.option.Option}
+ * Arguments are stored in slots indexed by ordinals of their options within the {@link CompiledOptionList},
+ * so that both inserts and lookups by handler are constant-time.
+ * Only matched arguments are stored, lookups of unmatched options are answered by placeholders shared by all lists
+ * parsed by the same {@link CompiledParser}, so that a parse allocates only for options present on the command line.
+ * Once parsed, the list can't be modified, so that it can be shared (e.g. by {@link CachingParser}).
  */
 public class ParsedArgList {
-    private final List<ParsedArgument<?>> memory;
+    private final CompiledOptionList options;
+    private final ParsedArgument<?>[] slots;
+
+    /**
+     * Shared placeholders of unmatched options, indexed by ordinals.
+     */
+    private final ParsedArgument<?>[] absentArguments;
+
+    /**
+     * Bitset of matched options, bit {@code i} is set iff option with ordinal {@code i} was matched.
+     */
+    private final long[] presence;
     private final List<String> plainArgs;
+    private final List<String> plainArgsView;
 
-    ParsedArgList() {
-        memory = new ArrayList<>();
+    ParsedArgList(CompiledOptionList compiledOptions, ParsedArgument<?>[] absentArguments) {
+        options = compiledOptions;
+        slots = new ParsedArgument<?>[compiledOptions.size()];
+        this.absentArguments = absentArguments;
+        presence = new long[(compiledOptions.size() + 63) >>> 6];
         plainArgs = new ArrayList<>();
-    }
-
-    ParsedArgList(List<ParsedArgument<?>> parsedOptionArguments, List<String> parsedPlainArguments) {
-        memory = parsedOptionArguments;
-        plainArgs = parsedPlainArguments;
+        plainArgsView = Collections.unmodifiableList(plainArgs);
     }
 
     //region API
 
     /**
      * Find a parsed argument with provided handler.
+     * Options which were not matched have an immutable placeholder without a raw value, shared by all parses.
      * @param handler identifier of argument
      * @return ParsedArgument if found, null otherwise.
      */
     public ParsedArgument<?> findArgument(String handler) {
-        return memory.stream()
-                .filter(arg -> Objects.equals(arg.getHandler(), handler))
-                .findFirst()
-                .orElse(null);
+        int ordinal = options.ordinalOf(handler);
+        if (ordinal < 0)
+            return null;
+
+        return slots[ordinal] != null ? slots[ordinal] : absentArguments[ordinal];
     }
 
     /**
@@ -47,10 +66,18 @@ public class ParsedArgList {
      * @return True if argument appeared in parsed args, false otherwise
      */
     public boolean isPresent(String handler) {
-        var arg = findArgument(handler);
-        if (arg == null)
-            return false;
-        return arg.wasMatched();
+        int ordinal = options.ordinalOf(handler);
+        return ordinal >= 0 && isMatched(ordinal);
+    }
+
+    /**
+     * Get presence of all options as a bitset, indexed by ordinals of options in the parser's option list.
+     * Bit {@code i} of the bitset (bit {@code i % 64} of word {@code i / 64}) is set iff option with ordinal {@code i}
+     * was matched.
+     * @return copy of the presence bitset
+     */
+    public long[] getPresenceBits() {
+        return presence.clone();
     }
 
     /**
@@ -89,23 +116,101 @@ public class ParsedArgList {
         }
     }
 
+    /**
+     * Return int value of parsed argument with provided handler without boxing it.
+     * Values extracted by {@link cz.mff.jassp.processing.extractor.IntExtractor} are stored unboxed, so reading them allocates nothing.
+     * @param handler identifier of argument
+     * @return int value of the argument
+     * @throws ParserException if argument was not found, is not present or its value is not an int
+     */
+    public int getInt(String handler) {
+        var maybeArgument = findArgument(handler);
+
+        if (maybeArgument instanceof PrimitiveArgument primitive && !primitive.isReal()) {
+            return primitive.getInt();
+        }
+
+        if (maybeArgument != null && maybeArgument.getValue() instanceof Integer value) {
+            return value;
+        }
+
+        throw new ParserException("Argument " + handler + " has no int value.");
+    }
+
+    /**
+     * Return int value of parsed argument with provided handler without boxing it, or a default if it wasn't matched.
+     * @param handler identifier of argument
+     * @param defaultValue value to return if argument is not present
+     * @return int value of the argument if present, default value otherwise
+     * @throws ParserException if argument is present but its value is not an int
+     */
+    public int getInt(String handler, int defaultValue) {
+        return isPresent(handler) ? getInt(handler) : defaultValue;
+    }
+
+    /**
+     * Return double value of parsed argument with provided handler without boxing it.
+     * Values extracted by {@link cz.mff.jassp.processing.extractor.RealExtractor} are stored unboxed, so reading them allocates nothing.
+     * @param handler identifier of argument
+     * @return double value of the argument
+     * @throws ParserException if argument was not found, is not present or its value is not a double
+     */
+    public double getDouble(String handler) {
+        var maybeArgument = findArgument(handler);
+
+        if (maybeArgument instanceof PrimitiveArgument primitive && primitive.isReal()) {
+            return primitive.getReal();
+        }
+
+        if (maybeArgument != null && maybeArgument.getValue() instanceof Double value) {
+            return value;
+        }
+
+        throw new ParserException("Argument " + handler + " has no double value.");
+    }
+
+    /**
+     * Return double value of parsed argument with provided handler without boxing it, or a default if it wasn't matched.
+     * @param handler identifier of argument
+     * @param defaultValue value to return if argument is not present
+     * @return double value of the argument if present, default value otherwise
+     * @throws ParserException if argument is present but its value is not a double
+     */
+    public double getDouble(String handler, double defaultValue) {
+        return isPresent(handler) ? getDouble(handler) : defaultValue;
+    }
+
+    /**
+     * @return unmodifiable list of plain arguments, in order
+     */
     public List<String> getPlainArgs(){
-        return plainArgs;
+        return plainArgsView;
     }
 
     //endregion
 
     //region Package-private manipulation
 
-    List<ParsedArgument<?>> getParsedArgs() { return memory; }
-
-    void addParsedArg(ParsedArgument<?> parsedArg) {
-        if (memory.stream().anyMatch(memArg -> memArg.getHandler().equals(parsedArg.getHandler())))
+    void addParsedArg(int ordinal, ParsedArgument<?> parsedArg) {
+        if (slots[ordinal] != null)
             throw new ParserException("Duplicate parsed argument found for handler " + parsedArg.getHandler());
 
-        memory.add(parsedArg);
+        slots[ordinal] = parsedArg;
+        if (parsedArg.wasMatched())
+            presence[ordinal >>> 6] |= 1L << ordinal;
     }
 
+    /**
+     * @param ordinal ordinal of the option
+     * @return True if the option was matched, i.e. its bit in the presence bitset is set
+     */
+    boolean isMatched(int ordinal) { return (presence[ordinal >>> 6] & (1L << ordinal)) != 0; }
+
+    /**
+     * @return bitset of matched options, indexed by ordinals
+     */
+    long[] presence() { return presence; }
+
     void addPlainArg(String plainArg) {
         plainArgs.add(plainArg);
     }
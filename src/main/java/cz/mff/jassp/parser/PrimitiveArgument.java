@@ -0,0 +1,36 @@
+package cz.mff.jassp.parser;
+
+/**
+ * Parsed argument of an option with an int or a double value, which is kept unboxed.
+ * The value is only boxed when requested through {@link #getValue()}.
+ */
+final class PrimitiveArgument extends ParsedArgument<Object> {
+
+    private final int intValue;
+    private final double realValue;
+    private final boolean real;
+
+    private PrimitiveArgument(String handler, String rawValue, int intValue, double realValue, boolean real) {
+        super(handler, rawValue, null, true);
+        this.intValue = intValue;
+        this.realValue = realValue;
+        this.real = real;
+    }
+
+    static PrimitiveArgument ofInt(String handler, String rawValue, int value) {
+        return new PrimitiveArgument(handler, rawValue, value, 0, false);
+    }
+
+    static PrimitiveArgument ofReal(String handler, String rawValue, double value) {
+        return new PrimitiveArgument(handler, rawValue, 0, value, true);
+    }
+
+    boolean isReal() { return real; }
+    int getInt() { return intValue; }
+    double getReal() { return realValue; }
+
+    @Override
+    public Object getValue() {
+        return real ? (Object) realValue : (Object) intValue;
+    }
+}
@@ -0,0 +1,121 @@
+package cz.mff.jassp.processing.extractor;
+
+/**
+ * Result of {@link Extractor#extract(String)}, which is either an extracted value or a failure.
+ * Failures are reported without throwing; their message is only formatted when asked for.
+ *
+ * @param <T> type of extracted value
+ */
+public final class Extraction<T> {
+
+    private final T value;
+    private final String reason;
+    private final String input;
+    private final Throwable cause;
+    private final int itemIndex;
+
+    private Extraction(T value, String reason, String input, Throwable cause, int itemIndex) {
+        this.value = value;
+        this.reason = reason;
+        this.input = input;
+        this.cause = cause;
+        this.itemIndex = itemIndex;
+    }
+
+    /**
+     * @param value extracted value
+     * @return a successful extraction of the value
+     */
+    public static <T> Extraction<T> success(T value) {
+        return new Extraction<>(value, null, null, null, -1);
+    }
+
+    /**
+     * @param reason constant description of why the extraction failed, e.g. "Failed to extract integer"
+     * @param input the string which failed to be extracted
+     * @return a failed extraction
+     */
+    public static <T> Extraction<T> failure(String reason, String input) {
+        return failure(reason, input, null);
+    }
+
+    /**
+     * @param reason description of why the extraction failed, e.g. message of the exception thrown by the extractor
+     * @param input the string which failed to be extracted
+     * @param cause exception which caused the failure, null if there is none
+     * @return a failed extraction
+     */
+    public static <T> Extraction<T> failure(String reason, String input, Throwable cause) {
+        if (reason == null)
+            throw new ExtractorException("Reason of a failed extraction cannot be null.");
+        return new Extraction<>(null, reason, input, cause, -1);
+    }
+
+    /**
+     * @return True if a value was extracted, false otherwise
+     */
+    public boolean isSuccess() { return reason == null; }
+
+    /**
+     * @return extracted value
+     * @throws ExtractorException if the extraction failed
+     */
+    public T getValue() throws ExtractorException {
+        if (reason != null)
+            throw new ExtractorException(getMessage(), cause);
+        return value;
+    }
+
+    /**
+     * @return input which failed to be extracted, null for successful extractions
+     */
+    public String getInput() { return input; }
+
+    /**
+     * @return constant reason of the failure (message without the input), null for successful extractions
+     */
+    public String getReason() { return reason; }
+
+    /**
+     * @return exception which caused the failure, null if there is none or the extraction succeeded
+     */
+    public Throwable getCause() { return cause; }
+
+    /**
+     * @return index of the invalid item of a list which failed to be extracted, -1 if the failure is not one of a list item
+     */
+    public int getItemIndex() { return itemIndex; }
+
+    /**
+     * @return description of the failure, null for successful extractions
+     */
+    public String getMessage() {
+        if (reason == null)
+            return null;
+        return reason + ": " + input;
+    }
+
+    /**
+     * Re-type a failed extraction, e.g. to report failure of a nested extractor.
+     * @return this failure
+     * @throws ExtractorException if the extraction succeeded
+     */
+    @SuppressWarnings("unchecked")
+    public <U> Extraction<U> asFailure() {
+        if (reason == null)
+            throw new ExtractorException("Successful extraction cannot be used as a failure.");
+        return (Extraction<U>) this;
+    }
+
+    /**
+     * Report failed extraction of an item as failure of the whole list, keeping its reason and input.
+     * @param index index of the item within the list
+     * @return failure of the list
+     * @throws ExtractorException if the extraction succeeded
+     */
+    public <U> Extraction<U> ofItem(int index) {
+        if (reason == null)
+            throw new ExtractorException("Successful extraction cannot be used as a failure.");
+        return new Extraction<>(null, reason, input, cause, index);
+    }
+}
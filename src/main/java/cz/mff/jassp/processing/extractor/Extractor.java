@@ -23,6 +23,50 @@ public abstract class Extractor<T> {
      */
     public abstract T parse(String match) throws ExtractorException;
 
+    /**
+     * Validate and parse the string's value in a single pass.
+     * Unlike {@link #parse(String)}, failure is reported by the returned result instead of throwing an exception.
+     * The default implementation only calls {@link #parse(String)}, reporting the message of its {@link ExtractorException}
+     * as the reason of the failure and the exception as its cause. Extractors which can fail without throwing should override it.
+     *
+     * @param match string of which value to extract.
+     * @return Extraction containing either the parsed value or reason of the failure.
+     */
+    public Extraction<T> extract(String match) {
+        try {
+            return Extraction.success(parse(match));
+        }
+        catch (ExtractorException e) {
+            String reason = e.getMessage() != null ? e.getMessage() : "Value failed to be parsed by extractor";
+            return Extraction.failure(reason, match, e);
+        }
+    }
+
+    /**
+     * Extract value of a region of a character sequence, e.g. of a list item found by a {@link Splitter}.
+     * The default implementation extracts a copy of the region by {@link #extract(String)},
+     * extractors which can read the chars in place should override it, so that no substring is created.
+     *
+     * @param seq sequence containing the value
+     * @param from inclusive start of the value
+     * @param to exclusive end of the value
+     * @return Extraction containing either the parsed value or reason of the failure.
+     */
+    public Extraction<T> extract(CharSequence seq, int from, int to) {
+        return extract(seq.subSequence(from, to).toString());
+    }
+
+    /**
+     * Tell whether {@link #validate(String)} is substantially cheaper than {@link #parse(String)}, e.g. when it only checks
+     * the format of a value which is expensive to decode. Options extracted lazily (see
+     * {@link cz.mff.jassp.option.OptionBuilder#setLazy()}) are only validated during parsing if so, otherwise they are
+     * extracted eagerly, as deferring the parse would save nothing.
+     * Extractors whose validation does the whole extraction should override it.
+     *
+     * @return True if validation is cheap, which is assumed by default
+     */
+    public boolean validatesCheaply() { return true; }
+
     //region Built-in factories
 
     /**
@@ -40,6 +84,16 @@ public abstract class Extractor<T> {
      */
     public static Extractor<String> String(List<String> allowedValues) { return new StringExtractor(allowedValues); }
 
+    /**
+     * Create an instance of a built-in extractor for options with string values matched against a domain.
+     * @param allowedValues domain of allowed strings
+     * @param matching how are strings matched against the domain, e.g. ignoring case or by unique prefixes
+     * @return a new instance of string extractor
+     */
+    public static Extractor<String> String(List<String> allowedValues, StringExtractor.Matching matching) {
+        return new StringExtractor(allowedValues, matching);
+    }
+
     /**
      * Create an instance of a built-in extractor for options with integer values.
      * @return a new instance of int extractor
@@ -85,5 +139,69 @@ public abstract class Extractor<T> {
         return new StructListExtractor<>(delimiter, innerParser);
     }
 
+    /**
+     * Create an instance of built-in extractor for options with list of recursively extracted values
+     * @param splitter splitter of values, e.g. one with an escapable delimiter
+     * @param innerParser an extractor which to use on each element of the extracted list
+     * @return a new instance of recursive list extractor
+     */
+    public static <X> Extractor<List<X>> List(Splitter splitter, Extractor<X> innerParser) {
+        return new StructListExtractor<>(splitter, innerParser);
+    }
+
+    /**
+     * Create an instance of built-in extractor for options with lists of integers, extracted into an int array
+     * @param delimiter a delimiter used to split values
+     * @return a new instance of int array extractor
+     */
+    public static Extractor<int[]> IntArray(String delimiter) { return new IntArrayExtractor(Splitter.on(delimiter)); }
+
+    /**
+     * Create an instance of built-in extractor for options with lists of bounded integers, extracted into an int array
+     * @param delimiter a delimiter used to split values
+     * @param min inclusive lower bound of allowed values
+     * @param max inclusive upper bound of allowed values
+     * @return a new instance of int array extractor
+     */
+    public static Extractor<int[]> IntArray(String delimiter, int min, int max) {
+        return new IntArrayExtractor(Splitter.on(delimiter), min, max);
+    }
+
+    /**
+     * Create an instance of built-in extractor for options with lists of long integers, extracted into a long array
+     * @param delimiter a delimiter used to split values
+     * @return a new instance of long array extractor
+     */
+    public static Extractor<long[]> LongArray(String delimiter) { return new LongArrayExtractor(Splitter.on(delimiter)); }
+
+    /**
+     * Create an instance of built-in extractor for options with lists of bounded long integers, extracted into a long array
+     * @param delimiter a delimiter used to split values
+     * @param min inclusive lower bound of allowed values
+     * @param max inclusive upper bound of allowed values
+     * @return a new instance of long array extractor
+     */
+    public static Extractor<long[]> LongArray(String delimiter, long min, long max) {
+        return new LongArrayExtractor(Splitter.on(delimiter), min, max);
+    }
+
+    /**
+     * Create an instance of built-in extractor for options with lists of real values, extracted into a double array
+     * @param delimiter a delimiter used to split values
+     * @return a new instance of real array extractor
+     */
+    public static Extractor<double[]> RealArray(String delimiter) { return new RealArrayExtractor(Splitter.on(delimiter)); }
+
+    /**
+     * Create an instance of built-in extractor for options with lists of bounded real values, extracted into a double array
+     * @param delimiter a delimiter used to split values
+     * @param min lower bound of allowed values
+     * @param max upper bound of allowed values
+     * @return a new instance of real array extractor
+     */
+    public static Extractor<double[]> RealArray(String delimiter, double min, double max) {
+        return new RealArrayExtractor(Splitter.on(delimiter), min, max);
+    }
+
     //endregion
 }
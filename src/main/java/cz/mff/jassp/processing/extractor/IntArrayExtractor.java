@@ -0,0 +1,53 @@
+package cz.mff.jassp.processing.extractor;
+
+/**
+ * Extractor of lists of integers into an {@code int[]}, e.g. of thousands of shard IDs.
+ * Items are parsed in place from the matched string (see {@link Splitter}), without creating a string or a box per item,
+ * and checked against the same bounds as {@link IntExtractor} checks.
+ */
+public class IntArrayExtractor extends PrimitiveArrayExtractor<int[]> {
+
+    private final IntExtractor items;
+
+    /**
+     * Create an extractor of lists of integers with unbounded accepted values.
+     * @param splitter used to split items in matched string
+     */
+    public IntArrayExtractor(Splitter splitter) {
+        this(splitter, new IntExtractor());
+    }
+
+    /**
+     * Create an extractor of lists of integers with bounded accepted values.
+     * @param splitter used to split items in matched string
+     * @param min inclusive lower bound of accepted integers
+     * @param max inclusive upper bound of accepted integers
+     * @throws ExtractorException if min is greater or equal to max
+     */
+    public IntArrayExtractor(Splitter splitter, int min, int max) {
+        this(splitter, new IntExtractor(min, max));
+    }
+
+    private IntArrayExtractor(Splitter splitter, IntExtractor items) {
+        super(splitter, "IntArrayExtractor");
+        this.items = items;
+    }
+
+    @Override
+    int[] newArray(int length) { return new int[length]; }
+
+    @Override
+    boolean parseItem(CharSequence seq, int from, int to, int[] values, int index) {
+        long value = items.tryParseInt(seq, from, to);
+        if (value == IntExtractor.INVALID)
+            return false;
+
+        values[index] = (int) value;
+        return true;
+    }
+
+    @Override
+    Extraction<?> itemFailure(CharSequence seq, int from, int to) {
+        return items.extract(seq, from, to);
+    }
+}
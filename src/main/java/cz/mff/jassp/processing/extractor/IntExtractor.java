@@ -2,8 +2,18 @@ package cz.mff.jassp.processing.extractor;
 
 public class IntExtractor extends Extractor<Integer> {
 
+    /**
+     * Results of {@link #parseOrFailure(String)} for strings which are not integers and for integers out of bounds.
+     * They lie outside the int range, so they cannot clash with any valid value.
+     */
+    static final long INVALID = Long.MIN_VALUE;
+    static final long OUT_OF_BOUNDS = Long.MIN_VALUE + 1;
+
+    private static final String notAnIntReason = "Failed to extract integer";
+
     private final int lowerBound;
     private final int upperBound;
+    private final String outOfBoundsReason;
 
     /**
      * Create an instance of integer extractor with unbounded accepted values.
@@ -11,6 +21,7 @@ public class IntExtractor extends Extractor<Integer> {
     IntExtractor() {
         lowerBound = Integer.MIN_VALUE;
         upperBound = Integer.MAX_VALUE;
+        outOfBoundsReason = outOfBoundsReason(lowerBound, upperBound);
     }
 
     /**
@@ -27,37 +38,181 @@ public class IntExtractor extends Extractor<Integer> {
 
         lowerBound = min;
         upperBound = max;
+        outOfBoundsReason = outOfBoundsReason(lowerBound, upperBound);
     }
 
+    private static String outOfBoundsReason(int min, int max) {
+        return "Extracted int is out of bounds (" + min + ", " + max + ")";
+    }
+
+    @Override
+    public boolean validatesCheaply() { return false; }
+
     @Override
     public boolean validate(String match) {
-        try {
-            int value = Integer.parseInt(match);
-            if (lowerBound <= value && value <= upperBound) {
-                return true;
-            }
-        }
-        catch (NumberFormatException ignored) {}
-        return false;
+        return failureReason(parseOrFailure(match)) == null;
     }
 
     /**
      * Try parse string into integer.
+     * The string is parsed in a single pass, accepting the same inputs as {@link Integer#parseInt(String)}.
      * @param match string of which value to parse.
      * @return integer value parsed
      * @throws ExtractorException when matched string cannot be parsed or its parsed value is out of bounds
      */
     @Override
     public Integer parse(String match) throws ExtractorException {
-        try {
-            int value = Integer.parseInt(match);
-            if (lowerBound <= value && value <= upperBound) {
-                return value;
-            }
-            throw new ExtractorException("Extracted int (" + match + ") is out of bounds (" + lowerBound + ", " + upperBound + ")");
+        long result = parseOrFailure(match);
+        String reason = failureReason(result);
+
+        if (reason != null) {
+            throw new ExtractorException(reason + ": " + match);
+        }
+
+        return (int) result;
+    }
+
+    /**
+     * Parse string into integer in a single pass, reporting failure without throwing.
+     * @param match string of which value to extract.
+     * @return Extraction of the integer value
+     */
+    @Override
+    public Extraction<Integer> extract(String match) {
+        long result = parseOrFailure(match);
+        String reason = failureReason(result);
+
+        if (reason != null) {
+            return Extraction.failure(reason, match);
+        }
+
+        return Extraction.success((int) result);
+    }
+
+    /**
+     * Parse a region of a character sequence into integer in place, without creating a substring of it.
+     * @param seq sequence containing the value
+     * @param from inclusive start of the value
+     * @param to exclusive end of the value
+     * @return Extraction of the integer value
+     */
+    @Override
+    public Extraction<Integer> extract(CharSequence seq, int from, int to) {
+        long value = scanInt(seq, from, to);
+
+        if (value == INVALID) {
+            return Extraction.failure(notAnIntReason, seq.subSequence(from, to).toString());
+        }
+
+        if (value < lowerBound || value > upperBound) {
+            return Extraction.failure(outOfBoundsReason, seq.subSequence(from, to).toString());
+        }
+
+        return Extraction.success((int) value);
+    }
+
+    /**
+     * Parse string into integer in a single pass, without boxing it and without throwing, for parsers keeping values unboxed.
+     * @param match string of which value to parse.
+     * @return integer value parsed, or a value outside the int range if the string was rejected (see {@link #failureReason(long)})
+     */
+    public long parseOrFailure(String match) {
+        long value = match == null ? INVALID : scanInt(match, 0, match.length());
+
+        if (value == INVALID) {
+            return INVALID;
+        }
+
+        return lowerBound <= value && value <= upperBound ? value : OUT_OF_BOUNDS;
+    }
+
+    /**
+     * @param result result of {@link #parseOrFailure(String)}
+     * @return reason why the string was rejected, the same as reported by {@link #extract(String)}, null if it was accepted
+     */
+    public String failureReason(long result) {
+        if (result == INVALID)
+            return notAnIntReason;
+
+        return result == OUT_OF_BOUNDS ? outOfBoundsReason : null;
+    }
+
+    /**
+     * Try parse a region of a character sequence into integer without boxing it, without throwing and without creating a substring.
+     * @param seq sequence containing the value
+     * @param from inclusive start of the value
+     * @param to exclusive end of the value
+     * @return integer value parsed, or {@link #INVALID} if the region cannot be parsed or its value is out of bounds
+     */
+    long tryParseInt(CharSequence seq, int from, int to) {
+        long value = scanInt(seq, from, to);
+        return lowerBound <= value && value <= upperBound ? value : INVALID;
+    }
+
+    /**
+     * Parse a region of a character sequence as a (signed, decimal) integer.
+     * Accepts the same inputs as {@link Integer#parseInt(String)}: an optional sign followed by at least one digit.
+     * @param seq sequence containing the integer
+     * @param from inclusive start of the region
+     * @param to exclusive end of the region
+     * @return parsed value, or {@link #INVALID} if the region is not an integer or it overflows the int range
+     */
+    static long scanInt(CharSequence seq, int from, int to) {
+        long negated = scanNegated(seq, from, to, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        return negated > 0 ? INVALID : signed(seq, from, negated);
+    }
+
+    /**
+     * Parse a region of a character sequence as a (signed, decimal) integer within the range of an integral type.
+     * Accepts the same inputs as {@link Long#parseLong(String)} does for the range of long: an optional sign followed
+     * by at least one digit. The magnitude is accumulated negatively, so that even {@link Long#MIN_VALUE} fits.
+     * @param seq sequence containing the integer
+     * @param from inclusive start of the region
+     * @param to exclusive end of the region
+     * @param min minimum of the type's range, e.g. {@link Integer#MIN_VALUE}
+     * @param max maximum of the type's range, e.g. {@link Integer#MAX_VALUE}
+     * @return non-positive negated magnitude of the parsed value (see {@link #signed(CharSequence, int, long)}),
+     *         or a positive number if the region is not an integer or it overflows the range
+     */
+    static long scanNegated(CharSequence seq, int from, int to, long min, long max) {
+        if (from >= to)
+            return 1;
+
+        int i = from;
+        long limit = -max;
+
+        char first = seq.charAt(i);
+        if (first == '-' || first == '+') {
+            if (first == '-')
+                limit = min;
+            if (++i == to)
+                return 1;
         }
-        catch(NumberFormatException e) {
-            throw new ExtractorException("Failed to extract integer from: " + match, e);
+
+        long multiplicationLimit = limit / 10;
+        long negated = 0;
+        for (; i < to; i++) {
+            char c = seq.charAt(i);
+            int digit = c >= '0' && c <= '9' ? c - '0' : Character.digit(c, 10);
+            if (digit < 0 || negated < multiplicationLimit)
+                return 1;
+
+            negated *= 10;
+            if (negated < limit + digit)
+                return 1;
+            negated -= digit;
         }
+
+        return negated;
+    }
+
+    /**
+     * @param seq sequence containing the integer
+     * @param from inclusive start of the region
+     * @param negated result of {@link #scanNegated(CharSequence, int, int, long, long)} for the region
+     * @return value of the integer
+     */
+    static long signed(CharSequence seq, int from, long negated) {
+        return seq.charAt(from) == '-' ? negated : -negated;
     }
-}
\ No newline at end of file
+}
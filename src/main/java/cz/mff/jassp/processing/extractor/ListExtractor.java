@@ -1,23 +1,33 @@
 package cz.mff.jassp.processing.extractor;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.regex.Pattern;
 
 public class ListExtractor extends Extractor<List<String>> {
 
-    private final String delim;
+    private final Splitter splitter;
 
     /**
      * Creates a ListExtractor which parses strings to list using specified delimiter
-     * @param delimiter used to split values
+     * @param delimiter used to split values, taken literally
      */
     public ListExtractor(String delimiter) {
         if (delimiter == null || delimiter.equals("")) {
             throw new ExtractorException("ListExtractor delimiter cannot be null nor an empty string.");
         }
 
-        delim = Pattern.quote(delimiter);
+        splitter = Splitter.on(delimiter);
+    }
+
+    /**
+     * Creates a ListExtractor which parses strings to list using specified splitter
+     * @param splitter used to split values, e.g. one with an escapable delimiter
+     */
+    public ListExtractor(Splitter splitter) {
+        if (splitter == null)
+            throw new ExtractorException("ListExtractor splitter cannot be null.");
+
+        this.splitter = splitter;
     }
 
     /**
@@ -41,9 +51,26 @@ public class ListExtractor extends Extractor<List<String>> {
         if (match == null)
             throw new ExtractorException("ListExtractor.parse argument is null");
 
+        return split(match);
+    }
+
+    /**
+     * Split matched string into list of strings, reporting failure without throwing.
+     * @param match string of which value to extract.
+     * @return Extraction of the split list
+     */
+    @Override
+    public Extraction<List<String>> extract(String match) {
+        if (match == null)
+            return Extraction.failure("ListExtractor argument is null", null);
+
+        return Extraction.success(split(match));
+    }
+
+    private List<String> split(String match) {
         if (match.equals(""))
-            return new ArrayList<>();
+            return Collections.emptyList();
 
-        return List.of(match.split(delim));
+        return Collections.unmodifiableList(splitter.split(match));
     }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package cz.mff.jassp.processing.extractor;
+
+/**
+ * Extractor of lists of long integers into a {@code long[]}, e.g. of thousands of IDs.
+ * Items are parsed in place from the matched string (see {@link Splitter}), without creating a string or a box per item,
+ * accepting the same inputs as {@link Long#parseLong(String)} within optional inclusive bounds.
+ */
+public class LongArrayExtractor extends PrimitiveArrayExtractor<long[]> {
+
+    private static final String notALongReason = "Failed to extract long";
+
+    private final long lowerBound;
+    private final long upperBound;
+    private final String outOfBoundsReason;
+
+    /**
+     * Create an extractor of lists of long integers with unbounded accepted values.
+     * @param splitter used to split items in matched string
+     */
+    public LongArrayExtractor(Splitter splitter) {
+        this(splitter, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Create an extractor of lists of long integers with bounded accepted values.
+     * @param splitter used to split items in matched string
+     * @param min inclusive lower bound of accepted values
+     * @param max inclusive upper bound of accepted values
+     * @throws ExtractorException if min is greater or equal to max
+     */
+    public LongArrayExtractor(Splitter splitter, long min, long max) {
+        super(splitter, "LongArrayExtractor");
+
+        if (min >= max)
+            throw new ExtractorException("Min value cannot be larger than max value.");
+
+        lowerBound = min;
+        upperBound = max;
+        outOfBoundsReason = "Extracted long is out of bounds (" + min + ", " + max + ")";
+    }
+
+    @Override
+    long[] newArray(int length) { return new long[length]; }
+
+    @Override
+    boolean parseItem(CharSequence seq, int from, int to, long[] values, int index) {
+        long negated = IntExtractor.scanNegated(seq, from, to, Long.MIN_VALUE, Long.MAX_VALUE);
+        if (negated > 0)
+            return false;
+
+        long value = IntExtractor.signed(seq, from, negated);
+        if (value < lowerBound || value > upperBound)
+            return false;
+
+        values[index] = value;
+        return true;
+    }
+
+    @Override
+    Extraction<?> itemFailure(CharSequence seq, int from, int to) {
+        boolean isLong = IntExtractor.scanNegated(seq, from, to, Long.MIN_VALUE, Long.MAX_VALUE) <= 0;
+        return Extraction.failure(isLong ? outOfBoundsReason : notALongReason, seq.subSequence(from, to).toString());
+    }
+}
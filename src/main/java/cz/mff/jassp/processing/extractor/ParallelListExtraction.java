@@ -0,0 +1,133 @@
+package cz.mff.jassp.processing.extractor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Extraction of items of a split list on a fork/join pool, used by {@link StructListExtractor} for large lists.
+ * The list is split sequentially first (so that escaped delimiters are handled the same way as when extracting
+ * sequentially), then its items are extracted in chunks of consecutive items, each into its own slots.
+ * The failure of the first invalid item is reported, regardless of which chunk finished first;
+ * chunks lying entirely after an already found invalid item are skipped.
+ */
+final class ParallelListExtraction<X> {
+
+    /**
+     * Number of chunks per thread of the pool, so that threads finishing early can take over the work of slower ones.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final Extractor<X> itemExtractor;
+
+    /**
+     * Regions of the items, in order.
+     */
+    private final CharSequence[] sequences;
+    private final int[] starts;
+    private final int[] ends;
+    private final Object[] values;
+
+    /**
+     * Index of the first invalid item found so far, {@link Integer#MAX_VALUE} if there is none.
+     */
+    private final AtomicInteger firstFailure = new AtomicInteger(Integer.MAX_VALUE);
+
+    private ParallelListExtraction(Extractor<X> itemExtractor, CharSequence[] sequences, int[] starts, int[] ends) {
+        this.itemExtractor = itemExtractor;
+        this.sequences = sequences;
+        this.starts = starts;
+        this.ends = ends;
+        this.values = new Object[sequences.length];
+    }
+
+    /**
+     * Split a string and extract its items in parallel, if there are at least a given number of them.
+     * @param threshold smallest number of items extracted in parallel
+     * @return Extraction of the list, or null if the string has fewer items than the threshold
+     */
+    static <X> Extraction<List<X>> extract(String match, Splitter splitter, Extractor<X> itemExtractor,
+                                            int threshold, ForkJoinPool pool) {
+        int capacity = splitter.maxPartCount(match);
+        if (capacity < threshold)
+            return null;
+
+        CharSequence[] sequences = new CharSequence[capacity];
+        int[] starts = new int[capacity];
+        int[] ends = new int[capacity];
+        int[] count = {0};
+        splitter.forEachPart(match, (seq, from, to) -> {
+            sequences[count[0]] = seq;
+            starts[count[0]] = from;
+            ends[count[0]] = to;
+            count[0]++;
+            return true;
+        });
+
+        if (count[0] < threshold)
+            return null;
+
+        var extraction = new ParallelListExtraction<>(itemExtractor,
+                Arrays.copyOf(sequences, count[0]), Arrays.copyOf(starts, count[0]), Arrays.copyOf(ends, count[0]));
+        int chunkSize = Math.max(1, count[0] / (pool.getParallelism() * CHUNKS_PER_THREAD));
+
+        Extraction<X> failure = pool.invoke(extraction.new Chunk(0, count[0], chunkSize));
+        if (failure != null)
+            return failure.asFailure();
+
+        return Extraction.success(extraction.valueList());
+    }
+
+    /**
+     * @return unmodifiable view of the extracted values, in order
+     */
+    @SuppressWarnings("unchecked")
+    private List<X> valueList() {
+        return (List<X>) Collections.unmodifiableList(Arrays.asList(values));
+    }
+
+    /**
+     * Extracts a range of items, resulting in failure of the first invalid item within the range, null if there is none.
+     */
+    @SuppressWarnings("serial") // tasks are never serialized
+    private final class Chunk extends RecursiveTask<Extraction<X>> {
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        Chunk(int from, int to, int chunkSize) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected Extraction<X> compute() {
+            if (to - from > chunkSize) {
+                int mid = (from + to) >>> 1;
+                Chunk right = new Chunk(mid, to, chunkSize);
+                right.fork();
+                Extraction<X> leftFailure = new Chunk(from, mid, chunkSize).compute();
+                Extraction<X> rightFailure = right.join();
+                return leftFailure != null ? leftFailure : rightFailure;
+            }
+
+            for (int i = from; i < to; i++) {
+                // an invalid item was already found before this one, so this one can't be the first
+                if (firstFailure.get() < i)
+                    return null;
+
+                Extraction<X> item = itemExtractor.extract(sequences[i], starts[i], ends[i]);
+                if (!item.isSuccess()) {
+                    firstFailure.accumulateAndGet(i, Math::min);
+                    return item.ofItem(i);
+                }
+                values[i] = item.getValue();
+            }
+            return null;
+        }
+    }
+}
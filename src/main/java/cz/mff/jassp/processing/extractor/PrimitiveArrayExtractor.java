@@ -0,0 +1,124 @@
+package cz.mff.jassp.processing.extractor;
+
+/**
+ * Base of extractors of lists of numbers into primitive arrays, e.g. {@link IntArrayExtractor}.
+ * Items are parsed in place from the matched string (see {@link Splitter}), without creating a string or a box per item,
+ * into an array sized up front by {@link Splitter#maxPartCount(String)}, which is only copied if some parts were empty.
+ * @param <A> type of extracted arrays, e.g. {@code int[]}
+ */
+abstract class PrimitiveArrayExtractor<A> extends Extractor<A> {
+
+    private final Splitter splitter;
+    private final String name;
+
+    /**
+     * @param splitter used to split items in matched string
+     * @param name name of the extractor used in messages
+     * @throws ExtractorException if splitter is null
+     */
+    PrimitiveArrayExtractor(Splitter splitter, String name) {
+        if (splitter == null)
+            throw new ExtractorException(name + " splitter cannot be null");
+
+        this.splitter = splitter;
+        this.name = name;
+    }
+
+    /**
+     * @param length length of the array
+     * @return new array of the extracted type
+     */
+    abstract A newArray(int length);
+
+    /**
+     * Parse a single item from a region of a character sequence into an array, without creating a string or a box.
+     * @param seq sequence containing the item
+     * @param from inclusive start of the item
+     * @param to exclusive end of the item
+     * @param values array to store the item into
+     * @param index index of the item
+     * @return True if the item was valid and stored, false otherwise
+     */
+    abstract boolean parseItem(CharSequence seq, int from, int to, A values, int index);
+
+    /**
+     * Report why an item rejected by {@link #parseItem(CharSequence, int, int, Object, int)} is invalid.
+     * @param seq sequence containing the item
+     * @param from inclusive start of the item
+     * @param to exclusive end of the item
+     * @return failed Extraction of the item
+     */
+    abstract Extraction<?> itemFailure(CharSequence seq, int from, int to);
+
+    @Override
+    public boolean validatesCheaply() { return false; }
+
+    @Override
+    public boolean validate(String match) {
+        return extract(match).isSuccess();
+    }
+
+    /**
+     * Parse matched string into an array of its items.
+     * @param match string of which value to parse.
+     * @return parsed array
+     * @throws ExtractorException if matched string is null or any of its items is not a number within bounds
+     */
+    @Override
+    public A parse(String match) throws ExtractorException {
+        return extract(match).getValue();
+    }
+
+    /**
+     * Split matched string once and parse its items, reporting failure of the first invalid item without throwing.
+     * @param match string of which value to extract.
+     * @return Extraction of the parsed array, or failure of the first invalid item (see {@link Extraction#getItemIndex()})
+     */
+    @Override
+    public Extraction<A> extract(String match) {
+        if (match == null)
+            return Extraction.failure(name + " argument is null", null);
+
+        Items parsed = new Items(splitter.maxPartCount(match));
+        if (!splitter.forEachPart(match, parsed))
+            return itemFailure(parsed.failed, parsed.failedFrom, parsed.failedTo).ofItem(parsed.size);
+
+        if (parsed.size == parsed.capacity)
+            return Extraction.success(parsed.values);
+
+        A values = newArray(parsed.size);
+        System.arraycopy(parsed.values, 0, values, 0, parsed.size);
+        return Extraction.success(values);
+    }
+
+    /**
+     * Collects parsed items, stops at the first invalid one.
+     */
+    private final class Items implements Splitter.PartConsumer {
+        private final A values;
+        private final int capacity;
+        private int size = 0;
+
+        private CharSequence failed;
+        private int failedFrom;
+        private int failedTo;
+
+        Items(int capacity) {
+            this.values = newArray(capacity);
+            this.capacity = capacity;
+        }
+
+        @Override
+        public boolean accept(CharSequence seq, int from, int to) {
+            if (!parseItem(seq, from, to, values, size)) {
+                failed = seq;
+                failedFrom = from;
+                failedTo = to;
+                return false;
+            }
+
+            size++;
+            return true;
+        }
+    }
+}
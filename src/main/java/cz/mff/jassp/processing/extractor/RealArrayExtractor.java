@@ -0,0 +1,53 @@
+package cz.mff.jassp.processing.extractor;
+
+/**
+ * Extractor of lists of real numbers into a {@code double[]}, e.g. of thousands of weights.
+ * Plain decimal items are parsed in place from the matched string (see {@link Splitter}), without creating a string
+ * or a box per item, and all items are checked against the same bounds as {@link RealExtractor} checks.
+ */
+public class RealArrayExtractor extends PrimitiveArrayExtractor<double[]> {
+
+    private final RealExtractor items;
+
+    /**
+     * Create an extractor of lists of real numbers with unbounded accepted values.
+     * @param splitter used to split items in matched string
+     */
+    public RealArrayExtractor(Splitter splitter) {
+        this(splitter, new RealExtractor());
+    }
+
+    /**
+     * Create an extractor of lists of real numbers with bounded accepted values.
+     * @param splitter used to split items in matched string
+     * @param min lower bound of accepted values
+     * @param max upper bound of accepted values
+     * @throws ExtractorException if a bound is NaN or min is greater or equal to max
+     */
+    public RealArrayExtractor(Splitter splitter, double min, double max) {
+        this(splitter, new RealExtractor(min, max));
+    }
+
+    private RealArrayExtractor(Splitter splitter, RealExtractor items) {
+        super(splitter, "RealArrayExtractor");
+        this.items = items;
+    }
+
+    @Override
+    double[] newArray(int length) { return new double[length]; }
+
+    @Override
+    boolean parseItem(CharSequence seq, int from, int to, double[] values, int index) {
+        double value = items.tryParseReal(seq, from, to);
+        if (Double.isNaN(value))
+            return false;
+
+        values[index] = value;
+        return true;
+    }
+
+    @Override
+    Extraction<?> itemFailure(CharSequence seq, int from, int to) {
+        return items.extract(seq, from, to);
+    }
+}
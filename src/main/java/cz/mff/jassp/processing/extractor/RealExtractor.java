@@ -1,6 +1,7 @@
 package cz.mff.jassp.processing.extractor;
 
 import java.util.List;
+import java.util.Set;
 
 public class RealExtractor extends Extractor<Double> {
 
@@ -31,12 +32,46 @@ public class RealExtractor extends Extractor<Double> {
             "-inf"
     );
 
+    private static final Set<String> positiveInfinitySet = Set.copyOf(positiveInfinityAliases);
+    private static final Set<String> negativeInfinitySet = Set.copyOf(negativeInfinityAliases);
+
+    private static final String notARealReason = "Failed to extract double";
+
+    /**
+     * Results of {@link #parseOrFailure(String)} for strings which are not doubles and for doubles out of bounds.
+     * They are NaN bit patterns, which no accepted value has, as NaN is never within bounds.
+     */
+    static final long NOT_A_REAL = 0x7ff8000000000001L;
+    static final long OUT_OF_BOUNDS = 0x7ff8000000000002L;
+
+    /**
+     * Powers of ten which are exactly representable as a double.
+     */
+    private static final double[] exactPowersOfTen = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Largest integer up to which all integers are exactly representable as a double.
+     */
+    private static final long maxExactMantissa = 1L << 53;
+
+    private final String outOfBoundsReason;
+
+    /**
+     * True for instances of exactly this class. Subclasses may override {@link #validate(String)} or {@link #parse(String)},
+     * so their values are extracted by those instead of the single-pass scanner, also when they are items of lists.
+     */
+    private final boolean builtIn = getClass() == RealExtractor.class;
+
     /**
      * Construct RealExtractor with unbounded allowed values
      */
     public RealExtractor() {
         lowerBound = -Double.MAX_VALUE;
         upperBound = Double.MAX_VALUE;
+        outOfBoundsReason = outOfBoundsReason(lowerBound, upperBound);
     }
 
     /**
@@ -55,27 +90,19 @@ public class RealExtractor extends Extractor<Double> {
 
         lowerBound = min;
         upperBound = max;
+        outOfBoundsReason = outOfBoundsReason(lowerBound, upperBound);
     }
 
-    @Override
-    public boolean validate(String match) {
-        try {
-
-            if (positiveInfinityAliases.contains(match)) {
-                return true;
-            }
+    private static String outOfBoundsReason(double min, double max) {
+        return "Extracted double is out of bounds (" + min + ", " + max + ")";
+    }
 
-            if (negativeInfinityAliases.contains(match)) {
-                return true;
-            }
+    @Override
+    public boolean validatesCheaply() { return false; }
 
-            double value = Double.parseDouble(match);
-            if (lowerBound <= value && value <= upperBound) {
-                return true;
-            }
-        }
-        catch (NumberFormatException ignored) {}
-        return false;
+    @Override
+    public boolean validate(String match) {
+        return failureReason(parseOrFailure(match)) == null;
     }
 
     /**
@@ -86,24 +113,317 @@ public class RealExtractor extends Extractor<Double> {
      */
     @Override
     public Double parse(String match) throws ExtractorException {
-        try {
+        long result = parseOrFailure(match);
+        String reason = failureReason(result);
+
+        if (reason != null) {
+            throw new ExtractorException(reason + ": " + match);
+        }
+
+        return Double.longBitsToDouble(result);
+    }
+
+    /**
+     * Parse string into double in a single pass, reporting failure without throwing.
+     * @param match string of which value to extract.
+     * @return Extraction of the double value
+     */
+    @Override
+    public Extraction<Double> extract(String match) {
+        if (!builtIn)
+            return super.extract(match);
+
+        long result = parseOrFailure(match);
+        String reason = failureReason(result);
+
+        if (reason != null) {
+            return Extraction.failure(reason, match);
+        }
+
+        return Extraction.success(Double.longBitsToDouble(result));
+    }
+
+    /**
+     * Parse a region of a character sequence into double, reporting failure without throwing.
+     * Plain decimal numbers are parsed in place, without creating a substring.
+     * @param seq sequence containing the value
+     * @param from inclusive start of the value
+     * @param to exclusive end of the value
+     * @return Extraction of the double value
+     */
+    @Override
+    public Extraction<Double> extract(CharSequence seq, int from, int to) {
+        if (!builtIn)
+            return super.extract(seq, from, to);
+
+        double value = scanExactReal(seq, from, to);
+
+        if (Double.isNaN(value)) {
+            return extract(seq.subSequence(from, to).toString());
+        }
+
+        if (lowerBound <= value && value <= upperBound) {
+            return Extraction.success(value);
+        }
+
+        return Extraction.failure(outOfBoundsReason, seq.subSequence(from, to).toString());
+    }
+
+    /**
+     * Try parse string into double without boxing it and without throwing.
+     * @param match string of which value to parse.
+     * @return double value parsed, or NaN if the string cannot be parsed or its value is out of bounds
+     */
+    double tryParseReal(String match) {
+        long result = parseOrFailure(match);
+        return failureReason(result) == null ? Double.longBitsToDouble(result) : Double.NaN;
+    }
+
+    /**
+     * Try parse a region of a character sequence into double without boxing it and without throwing.
+     * Plain decimal numbers are parsed in place, anything else (e.g. infinity aliases) is parsed from a substring
+     * the same way as {@link #tryParseReal(String)} does.
+     * @param seq sequence containing the value
+     * @param from inclusive start of the value
+     * @param to exclusive end of the value
+     * @return double value parsed, or NaN if the region cannot be parsed or its value is out of bounds
+     */
+    double tryParseReal(CharSequence seq, int from, int to) {
+        double value = scanExactReal(seq, from, to);
+        if (Double.isNaN(value))
+            return tryParseReal(seq.subSequence(from, to).toString());
+
+        return lowerBound <= value && value <= upperBound ? value : Double.NaN;
+    }
+
+    /**
+     * Parse string into double in a single pass, without boxing it and without throwing, for parsers keeping values unboxed.
+     * Infinity aliases are accepted regardless of bounds.
+     * @param match string of which value to parse.
+     * @return raw bits (see {@link Double#longBitsToDouble(long)}) of the double value parsed, or NaN bits if the string
+     *         was rejected (see {@link #failureReason(long)})
+     */
+    public long parseOrFailure(String match) {
+        if (match == null)
+            return NOT_A_REAL;
+
+        double value = scanExactReal(match, 0, match.length());
 
-            if (positiveInfinityAliases.contains(match)) {
-                return Double.POSITIVE_INFINITY;
+        if (Double.isNaN(value)) {
+            if (positiveInfinitySet.contains(match)) {
+                return Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
             }
 
-            if (negativeInfinityAliases.contains(match)) {
-                return Double.NEGATIVE_INFINITY;
+            if (negativeInfinitySet.contains(match)) {
+                return Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY);
             }
 
-            double value = Double.parseDouble(match);
-            if (lowerBound <= value && value <= upperBound) {
-                return value;
+            // whatever the decimal scanner can't settle is parsed by the JDK, but only once it is known to be accepted
+            if (!isDoubleLiteral(match))
+                return NOT_A_REAL;
+
+            value = Double.parseDouble(match);
+            if (Double.isNaN(value))
+                return NOT_A_REAL;
+        }
+
+        return lowerBound <= value && value <= upperBound ? Double.doubleToRawLongBits(value) : OUT_OF_BOUNDS;
+    }
+
+    /**
+     * @param result result of {@link #parseOrFailure(String)}
+     * @return reason why the string was rejected, the same as reported by {@link #extract(String)}, null if it was accepted
+     */
+    public String failureReason(long result) {
+        if (result == NOT_A_REAL)
+            return notARealReason;
+
+        return result == OUT_OF_BOUNDS ? outOfBoundsReason : null;
+    }
+
+    /**
+     * Parse a region of a character sequence as a plain decimal number (optional sign, digits with an optional
+     * decimal point and an optional exponent), if its value can be computed exactly by a single double operation.
+     * That is the case when its significand fits into 53 bits and its decimal exponent is at most 22 in absolute value
+     * (Clinger's fast path), which covers most numbers written by hand, the rest is left to {@link Double#parseDouble(String)}.
+     * @return parsed value, NaN if the region is not a plain decimal number or its value can't be computed exactly
+     */
+    static double scanExactReal(CharSequence seq, int from, int to) {
+        int i = from;
+        if (i == to)
+            return Double.NaN;
+
+        boolean negative = false;
+        char c = seq.charAt(i);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int scale = 0;
+        boolean anyDigit = false;
+        boolean point = false;
+
+        for (; i < to; i++) {
+            c = seq.charAt(i);
+            if (c >= '0' && c <= '9') {
+                anyDigit = true;
+                if (point)
+                    scale++;
+                if (mantissa == 0 && c == '0')
+                    continue;
+                if (++significantDigits > 16)
+                    return Double.NaN;
+                mantissa = mantissa * 10 + (c - '0');
+            }
+            else if (c == '.' && !point) {
+                point = true;
+            }
+            else {
+                break;
             }
-            throw new ExtractorException("Extracted double (" + match + ") is out of bounds (" + lowerBound + ", " + upperBound + ")");
         }
-        catch(NumberFormatException e) {
-            throw new ExtractorException("Failed to extract double from: " + match, e);
+
+        if (!anyDigit)
+            return Double.NaN;
+
+        int exponent = 0;
+        if (i < to) {
+            c = seq.charAt(i);
+            if (c != 'e' && c != 'E')
+                return Double.NaN;
+
+            boolean negativeExponent = false;
+            if (++i < to && (seq.charAt(i) == '-' || seq.charAt(i) == '+')) {
+                negativeExponent = seq.charAt(i) == '-';
+                i++;
+            }
+            if (i == to)
+                return Double.NaN;
+
+            for (; i < to; i++) {
+                c = seq.charAt(i);
+                if (c < '0' || c > '9' || exponent > 1000)
+                    return Double.NaN;
+                exponent = exponent * 10 + (c - '0');
+            }
+            if (negativeExponent)
+                exponent = -exponent;
         }
+
+        if (mantissa > maxExactMantissa)
+            return Double.NaN;
+
+        double value;
+        int decimalExponent = exponent - scale;
+        if (mantissa == 0)
+            value = 0;
+        else if (decimalExponent >= 0 && decimalExponent < exactPowersOfTen.length)
+            value = mantissa * exactPowersOfTen[decimalExponent];
+        else if (decimalExponent < 0 && -decimalExponent < exactPowersOfTen.length)
+            value = mantissa / exactPowersOfTen[-decimalExponent];
+        else
+            return Double.NaN;
+
+        return negative ? -value : value;
+    }
+
+    /**
+     * Check whether a string is accepted by {@link Double#parseDouble(String)}, following the grammar documented by
+     * {@link Double#valueOf(String)}: optional surrounding whitespace and sign, then NaN, Infinity, or a decimal
+     * or hexadecimal floating-point literal with an optional type suffix. Lets malformed strings be rejected
+     * without a {@link NumberFormatException} being thrown and caught.
+     */
+    static boolean isDoubleLiteral(String s) {
+        int from = 0, to = s.length();
+        while (from < to && s.charAt(from) <= ' ')
+            from++;
+        while (to > from && s.charAt(to - 1) <= ' ')
+            to--;
+
+        if (from < to && (s.charAt(from) == '+' || s.charAt(from) == '-'))
+            from++;
+
+        if (to - from == 3 && s.startsWith("NaN", from) || to - from == 8 && s.startsWith("Infinity", from))
+            return true;
+
+        if (to - from >= 2 && s.charAt(from) == '0' && (s.charAt(from + 1) == 'x' || s.charAt(from + 1) == 'X'))
+            return isHexLiteral(s, from + 2, to);
+
+        return isDecimalLiteral(s, from, to);
+    }
+
+    private static boolean isDecimalLiteral(String s, int i, int to) {
+        int start = i;
+        while (i < to && isDigit(s.charAt(i)))
+            i++;
+        int digits = i - start;
+
+        if (i < to && s.charAt(i) == '.') {
+            start = ++i;
+            while (i < to && isDigit(s.charAt(i)))
+                i++;
+            digits += i - start;
+        }
+
+        if (digits == 0)
+            return false;
+
+        if (i < to && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            i = skipExponent(s, i + 1, to);
+            if (i < 0)
+                return false;
+        }
+
+        return isTypeSuffix(s, i, to);
+    }
+
+    private static boolean isHexLiteral(String s, int i, int to) {
+        int start = i;
+        while (i < to && isHexDigit(s.charAt(i)))
+            i++;
+        int digits = i - start;
+
+        if (i < to && s.charAt(i) == '.') {
+            start = ++i;
+            while (i < to && isHexDigit(s.charAt(i)))
+                i++;
+            digits += i - start;
+        }
+
+        // unlike the decimal one, binary exponent is mandatory
+        if (digits == 0 || i == to || (s.charAt(i) != 'p' && s.charAt(i) != 'P'))
+            return false;
+
+        i = skipExponent(s, i + 1, to);
+        return i >= 0 && isTypeSuffix(s, i, to);
+    }
+
+    /**
+     * @return index after an exponent (optional sign and at least one digit) starting at {@code i}, -1 if there is none
+     */
+    private static int skipExponent(String s, int i, int to) {
+        if (i < to && (s.charAt(i) == '+' || s.charAt(i) == '-'))
+            i++;
+
+        int start = i;
+        while (i < to && isDigit(s.charAt(i)))
+            i++;
+
+        return i > start ? i : -1;
+    }
+
+    private static boolean isTypeSuffix(String s, int i, int to) {
+        return i == to || i + 1 == to && "fFdD".indexOf(s.charAt(i)) >= 0;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isHexDigit(char c) {
+        return isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,199 @@
+package cz.mff.jassp.processing.extractor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits strings by a literal delimiter, shared by {@link ListExtractor} and {@link StructListExtractor}.
+ * The string is scanned once with {@link String#indexOf(String, int)}, no regular expression is involved.
+ * Parts are reported as regions of the split string, so that extractors which read chars in place
+ * (see {@link Extractor#extract(CharSequence, int, int)}) don't need a substring of each part.
+ * <p>
+ * Splitting follows {@link String#split(String)} with a quoted delimiter: trailing empty parts are dropped
+ * and a string without any delimiter is a single part, even if it is empty.
+ * Optionally, an escape char can be given, which makes the following char (e.g. the delimiter or the escape char
+ * itself) a literal part of the value. Parts containing escapes are unescaped into a new string.
+ * Splitters are immutable and can be shared between threads.
+ */
+public final class Splitter {
+
+    private static final int NO_ESCAPE = -1;
+
+    /**
+     * Receives parts of a split string.
+     */
+    @FunctionalInterface
+    public interface PartConsumer {
+        /**
+         * @param seq sequence containing the part
+         * @param from inclusive start of the part
+         * @param to exclusive end of the part
+         * @return True to continue splitting, false to stop
+         */
+        boolean accept(CharSequence seq, int from, int to);
+    }
+
+    private final String delimiter;
+    private final int escape;
+
+    /**
+     * The delimiter's only char, -1 if it is longer. Single chars are searched by the faster {@link String#indexOf(int, int)}.
+     */
+    private final int delimiterChar;
+
+    private Splitter(String delimiter, int escape) {
+        if (delimiter == null || delimiter.equals(""))
+            throw new ExtractorException("Splitter delimiter cannot be null nor an empty string");
+        if (escape != NO_ESCAPE && delimiter.indexOf(escape) >= 0)
+            throw new ExtractorException("Splitter delimiter cannot contain its escape char");
+
+        this.delimiter = delimiter;
+        this.escape = escape;
+        this.delimiterChar = delimiter.length() == 1 ? delimiter.charAt(0) : -1;
+    }
+
+    /**
+     * Create a splitter by a literal delimiter.
+     * @param delimiter delimiter of parts
+     * @return a new splitter
+     * @throws ExtractorException if delimiter is null or empty
+     */
+    public static Splitter on(String delimiter) {
+        return new Splitter(delimiter, NO_ESCAPE);
+    }
+
+    /**
+     * Create a splitter by a literal delimiter, which can be escaped within parts.
+     * @param delimiter delimiter of parts
+     * @param escape char making the following char a literal part of the value, e.g. a backslash
+     * @return a new splitter
+     * @throws ExtractorException if delimiter is null, empty or contains the escape char
+     */
+    public static Splitter on(String delimiter, char escape) {
+        return new Splitter(delimiter, escape);
+    }
+
+    /**
+     * @return literal delimiter of parts
+     */
+    public String getDelimiter() { return delimiter; }
+
+    /**
+     * Split string into a list of parts.
+     * @param input string to split
+     * @return parts of the string
+     */
+    public List<String> split(String input) {
+        List<String> parts = new ArrayList<>();
+        forEachPart(input, (seq, from, to) -> {
+            parts.add(seq.subSequence(from, to).toString());
+            return true;
+        });
+        return parts;
+    }
+
+    /**
+     * Count delimiters of a string, so that a buffer for its parts can be allocated up front.
+     * @param input string to split
+     * @return upper bound of the number of parts of the string
+     */
+    public int maxPartCount(String input) {
+        int count = 1;
+        for (int i = indexOfDelimiter(input, 0); i >= 0; i = indexOfDelimiter(input, i + delimiter.length())) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Split string, reporting each part to the consumer in order.
+     * @param input string to split
+     * @param consumer receiver of parts, which can stop the splitting
+     * @return True if all parts were reported, false if the consumer stopped the splitting
+     */
+    public boolean forEachPart(String input, PartConsumer consumer) {
+        if (escape == NO_ESCAPE || input.indexOf(escape) < 0)
+            return forEachLiteralPart(input, consumer);
+
+        return forEachEscapedPart(input, consumer);
+    }
+
+    private boolean forEachLiteralPart(String input, PartConsumer consumer) {
+        int next = indexOfDelimiter(input, 0);
+        if (next < 0)
+            return consumer.accept(input, 0, input.length());
+
+        int from = 0;
+        // empty parts are only reported once a non-empty one follows them
+        int pendingEmpty = 0;
+        while (true) {
+            int to = next < 0 ? input.length() : next;
+
+            if (from == to) {
+                pendingEmpty++;
+            }
+            else {
+                for (; pendingEmpty > 0; pendingEmpty--) {
+                    if (!consumer.accept(input, from, from))
+                        return false;
+                }
+                if (!consumer.accept(input, from, to))
+                    return false;
+            }
+
+            if (next < 0)
+                return true;
+
+            from = next + delimiter.length();
+            next = indexOfDelimiter(input, from);
+        }
+    }
+
+    private int indexOfDelimiter(String input, int from) {
+        return delimiterChar >= 0 ? input.indexOf(delimiterChar, from) : input.indexOf(delimiter, from);
+    }
+
+    private boolean forEachEscapedPart(String input, PartConsumer consumer) {
+        StringBuilder part = new StringBuilder();
+        boolean delimited = false;
+        int pendingEmpty = 0;
+
+        int i = 0;
+        while (i <= input.length()) {
+            boolean end = i == input.length();
+
+            if (!end && input.charAt(i) == escape) {
+                // a trailing escape char stands for itself
+                boolean last = i + 1 == input.length();
+                part.append(last ? (char) escape : input.charAt(i + 1));
+                i += last ? 1 : 2;
+                continue;
+            }
+
+            if (end || input.startsWith(delimiter, i)) {
+                // empty parts are only reported once a non-empty one follows them
+                if (part.length() == 0 && (delimited || !end)) {
+                    pendingEmpty++;
+                }
+                else {
+                    for (; pendingEmpty > 0; pendingEmpty--) {
+                        if (!consumer.accept("", 0, 0))
+                            return false;
+                    }
+                    String value = part.toString();
+                    if (!consumer.accept(value, 0, value.length()))
+                        return false;
+                }
+
+                part.setLength(0);
+                delimited = true;
+                i += end ? 1 : delimiter.length();
+                continue;
+            }
+
+            part.append(input.charAt(i));
+            i++;
+        }
+        return true;
+    }
+}
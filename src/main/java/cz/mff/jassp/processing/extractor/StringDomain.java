@@ -0,0 +1,161 @@
+package cz.mff.jassp.processing.extractor;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Domain of a {@link StringExtractor} compiled for lookups in time linear to the length of the looked up string.
+ * Exact domains are hashed, domains matched ignoring case or by prefixes are stored in a trie of (case-folded) chars.
+ * Lookups return the canonical (interned) instance of the matching domain value.
+ */
+final class StringDomain {
+
+    private final StringExtractor.Matching matching;
+
+    /**
+     * Canonical instance of each value, only used for exact matching.
+     */
+    private final Map<String, String> values;
+
+    /**
+     * Trie of all values, only used for matching ignoring case or by prefixes.
+     */
+    private final Node root;
+
+    private static final class Node {
+        private static final char[] noKeys = new char[0];
+        private static final Node[] noChildren = new Node[0];
+
+        /**
+         * Sorted chars of edges to children.
+         */
+        private char[] keys = noKeys;
+        private Node[] children = noChildren;
+
+        /**
+         * Canonical value ending at this node, null if there is none.
+         */
+        private String value;
+
+        /**
+         * Sole value ending at this node or below it, null if there are none or several of them.
+         */
+        private String completion;
+        private int valueCount;
+
+        Node child(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node addChild(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index >= 0)
+                return children[index];
+
+            int insertion = -index - 1;
+            keys = insert(keys, insertion, key);
+            Node child = new Node();
+            Node[] newChildren = Arrays.copyOf(children, children.length + 1);
+            System.arraycopy(newChildren, insertion, newChildren, insertion + 1, children.length - insertion);
+            newChildren[insertion] = child;
+            children = newChildren;
+            return child;
+        }
+
+        private static char[] insert(char[] array, int index, char key) {
+            char[] result = Arrays.copyOf(array, array.length + 1);
+            System.arraycopy(result, index, result, index + 1, array.length - index);
+            result[index] = key;
+            return result;
+        }
+    }
+
+    private StringDomain(StringExtractor.Matching matching, Map<String, String> values, Node root) {
+        this.matching = matching;
+        this.values = values;
+        this.root = root;
+    }
+
+    /**
+     * Compile a domain for given matching.
+     * @param domain allowed values, without nulls
+     * @param matching how are strings matched against the domain
+     * @return compiled domain
+     * @throws ExtractorException if two values are equal ignoring case and the domain is matched ignoring case
+     */
+    static StringDomain compile(List<String> domain, StringExtractor.Matching matching) {
+        if (matching == StringExtractor.Matching.EXACT) {
+            Map<String, String> values = new HashMap<>();
+            for (String value : domain) {
+                String canonical = value.intern();
+                values.put(canonical, canonical);
+            }
+            return new StringDomain(matching, values, null);
+        }
+
+        boolean ignoreCase = matching.ignoresCase();
+        Node root = new Node();
+        for (String value : domain) {
+            String canonical = value.intern();
+
+            Node node = root;
+            for (int i = 0; i < canonical.length(); i++) {
+                node = node.addChild(fold(canonical.charAt(i), ignoreCase));
+            }
+
+            if (node.value != null) {
+                if (node.value.equals(canonical))
+                    continue;
+                throw new ExtractorException("StringExtractor domain contains values equal ignoring case: "
+                        + node.value + ", " + canonical);
+            }
+            node.value = canonical;
+
+            // count the new value on its whole path
+            node = root;
+            for (int i = 0; ; i++) {
+                node.valueCount++;
+                node.completion = node.valueCount == 1 ? canonical : null;
+                if (i == canonical.length())
+                    break;
+                node = node.child(fold(canonical.charAt(i), ignoreCase));
+            }
+        }
+        return new StringDomain(matching, null, root);
+    }
+
+    /**
+     * @param match string to look up
+     * @return canonical instance of the matching value, null if there is none (or several of them match a non-empty prefix)
+     */
+    String lookup(String match) {
+        if (values != null)
+            return values.get(match);
+
+        boolean ignoreCase = matching.ignoresCase();
+        Node node = root;
+        for (int i = 0; i < match.length() && node != null; i++) {
+            node = node.child(fold(match.charAt(i), ignoreCase));
+        }
+
+        if (node == null)
+            return null;
+
+        // a whole value wins over longer values it is a prefix of
+        if (node.value != null)
+            return node.value;
+
+        // an empty string is not a prefix of a value, even if the domain has just one
+        return matching.acceptsPrefixes() && !match.isEmpty() ? node.completion : null;
+    }
+
+    /**
+     * Fold char the same way as {@link String#equalsIgnoreCase(String)} does.
+     */
+    private static char fold(char c, boolean ignoreCase) {
+        return ignoreCase ? Character.toLowerCase(Character.toUpperCase(c)) : c;
+    }
+}
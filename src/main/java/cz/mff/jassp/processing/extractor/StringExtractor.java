@@ -6,7 +6,38 @@ import java.util.Objects;
 public class StringExtractor extends Extractor<String> {
     // TODO: Apart from domain, maybe regexes etc.?
 
-    private final List<String> domain;
+    private static final String notInDomainReason = "Extracted string doesn't belong to specified domain or is null";
+
+    /**
+     * How are extracted strings matched against the domain of allowed values.
+     * Matched strings are always extracted as the canonical instance of the allowed value they match.
+     */
+    public enum Matching {
+        /** String has to be equal to an allowed value. */
+        EXACT(false, false),
+        /** String has to be equal to an allowed value ignoring case. */
+        IGNORE_CASE(true, false),
+        /** String has to be an allowed value or a non-empty prefix of exactly one allowed value. */
+        UNIQUE_PREFIX(false, true),
+        /** String has to be an allowed value or a non-empty prefix of exactly one allowed value, ignoring case. */
+        UNIQUE_PREFIX_IGNORE_CASE(true, true);
+
+        private final boolean ignoreCase;
+        private final boolean prefixes;
+
+        Matching(boolean ignoreCase, boolean prefixes) {
+            this.ignoreCase = ignoreCase;
+            this.prefixes = prefixes;
+        }
+
+        boolean ignoresCase() { return ignoreCase; }
+        boolean acceptsPrefixes() { return prefixes; }
+    }
+
+    /**
+     * Allowed values compiled for lookups, null if all strings are allowed.
+     */
+    private final StringDomain domain;
 
     /**
      * Create an instance of string extractor with unbounded accepted values.
@@ -20,13 +51,51 @@ public class StringExtractor extends Extractor<String> {
      * @param allowedValues list of strings which are allowed
      */
     public StringExtractor(List<String> allowedValues) {
+        this(allowedValues, Matching.EXACT);
+    }
+
+    /**
+     * Create an instance of string extractor with bounded accepted values by a domain, matched in a given way.
+     * The domain is compiled on creation, so that each lookup is linear to the length of the extracted string
+     * regardless of the domain's size. Later modifications of the list are not reflected.
+     * @param allowedValues list of strings which are allowed
+     * @param matching how are extracted strings matched against allowed values
+     * @throws ExtractorException if the domain is null or contains null,
+     * or if it contains values equal ignoring case and is matched ignoring case
+     */
+    public StringExtractor(List<String> allowedValues, Matching matching) {
         if (allowedValues == null)
             throw new ExtractorException("StringExtractor domain cannot be null (for unbounded String extractor use parameterless constructor)");
         if (allowedValues.stream().anyMatch(Objects::isNull))
             throw new ExtractorException("StringExtractor domain cannot contain null");
-        domain = allowedValues;
+        if (matching == null)
+            throw new ExtractorException("StringExtractor matching cannot be null");
+        domain = StringDomain.compile(allowedValues, matching);
     }
 
+    /**
+     * Find the allowed value matching a string.
+     * @param match string to look up
+     * @return canonical instance of the matching allowed value, the string itself if all strings are allowed,
+     * null if the string is null or doesn't match
+     */
+    private String canonical(String match) {
+        if (match == null)
+            return null;
+
+        if (domain != null)
+            return domain.lookup(match);
+
+        return match;
+    }
+
+    /**
+     * Validation looks the string up in the domain the same way as parsing does.
+     * @return False
+     */
+    @Override
+    public boolean validatesCheaply() { return false; }
+
     /**
      * Check whether matched string adheres to extractor's conditions (falls in specified domain, if any)
      * @param match string of which value to validate.
@@ -34,25 +103,35 @@ public class StringExtractor extends Extractor<String> {
      */
     @Override
     public boolean validate(String match) {
-        if (match == null)
-            return false;
+        return canonical(match) != null;
+    }
 
-        if (domain != null)
-            return domain.contains(match);
+    /**
+     * Check the matched string against the domain in a single pass, reporting failure without throwing.
+     * @param match string of which value to extract.
+     * @return Extraction of the matched string
+     */
+    @Override
+    public Extraction<String> extract(String match) {
+        String value = canonical(match);
+        if (value != null) {
+            return Extraction.success(value);
+        }
 
-        return true;
+        return Extraction.failure(notInDomainReason, match);
     }
 
     /**
-     * Try parse string into integer.
+     * Match string against the domain.
      * @param match string of which value to parse.
-     * @return integer value parsed
-     * @throws ExtractorException when matched string cannot be parsed or its parsed value is out of bounds
+     * @return canonical instance of the matching allowed value
+     * @throws ExtractorException when matched string is null or doesn't belong to the domain
      */
     @Override
     public String parse(String match) throws ExtractorException {
-        if (validate(match)) {
-            return match;
+        String value = canonical(match);
+        if (value != null) {
+            return value;
         }
         else {
             throw new ExtractorException("Extracted string (" + match + ") doesn't belong to specified domain or is null.");
@@ -1,17 +1,24 @@
 package cz.mff.jassp.processing.extractor;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
 
 public class StructListExtractor<X> extends Extractor<List<X>> {
 
-    String delim;
-    Extractor<X> partParser;
+    private final Splitter splitter;
+    private final Extractor<X> partParser;
+
+    /**
+     * Smallest number of items extracted in parallel, {@link Integer#MAX_VALUE} if lists are always extracted sequentially.
+     */
+    private final int parallelThreshold;
+    private final ForkJoinPool pool;
 
     /**
      * Create a nested StructListExtractor capable of parsing matched string into list of values parsed by nested extractor.
-     * @param delimiter used to split values in matched string
+     * @param delimiter used to split values in matched string, taken literally
      * @param innerParser parser to iteratively run on each split value
      */
     public StructListExtractor(String delimiter, Extractor<X> innerParser) {
@@ -21,10 +28,73 @@ public class StructListExtractor<X> extends Extractor<List<X>> {
         if (innerParser == null)
             throw new ExtractorException("StructListExtractor's nested extractor cannot be null");
 
-        delim = delimiter;
+        splitter = Splitter.on(delimiter);
+        partParser = innerParser;
+        parallelThreshold = Integer.MAX_VALUE;
+        pool = null;
+    }
+
+    /**
+     * Create a nested StructListExtractor capable of parsing matched string into list of values parsed by nested extractor.
+     * @param splitter used to split values in matched string, e.g. one with an escapable delimiter
+     * @param innerParser parser to iteratively run on each split value
+     */
+    public StructListExtractor(Splitter splitter, Extractor<X> innerParser) {
+        if (splitter == null)
+            throw new ExtractorException("StructListExtractor splitter cannot be null");
+
+        if (innerParser == null)
+            throw new ExtractorException("StructListExtractor's nested extractor cannot be null");
+
+        this.splitter = splitter;
         partParser = innerParser;
+        parallelThreshold = Integer.MAX_VALUE;
+        pool = null;
+    }
+
+    private StructListExtractor(StructListExtractor<X> extractor, int threshold, ForkJoinPool pool) {
+        if (threshold < 1)
+            throw new ExtractorException("StructListExtractor parallel threshold must be positive");
+
+        if (pool == null)
+            throw new ExtractorException("StructListExtractor's fork/join pool cannot be null");
+
+        splitter = extractor.splitter;
+        partParser = extractor.partParser;
+        parallelThreshold = threshold;
+        this.pool = pool;
+    }
+
+    /**
+     * Create a copy of this extractor, which extracts items of large lists in parallel on the common fork/join pool.
+     * @param threshold smallest number of items of a list extracted in parallel, smaller lists are extracted sequentially
+     * @return a new instance of list extractor
+     * @see #parallel(int, ForkJoinPool)
+     */
+    public StructListExtractor<X> parallel(int threshold) {
+        return parallel(threshold, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a copy of this extractor, which extracts items of large lists in parallel, e.g. when the nested extractor is expensive.
+     * Items keep their order and the failure of the first invalid item is reported, the same as when extracting sequentially.
+     * The nested extractor has to be thread-safe.
+     * @param threshold smallest number of items of a list extracted in parallel, smaller lists are extracted sequentially
+     * @param pool pool extracting the items
+     * @return a new instance of list extractor
+     * @throws ExtractorException if threshold is not positive or pool is null
+     */
+    public StructListExtractor<X> parallel(int threshold, ForkJoinPool pool) {
+        return new StructListExtractor<>(this, threshold, pool);
     }
 
+    /**
+     * Validation extracts every item of the list.
+     * @return False
+     */
+    @Override
+    public boolean validatesCheaply() { return false; }
+
     /**
      * Check whether matched string can be successfully parsed using this extractor as well as nested one.
      * @param match string of which value to validate.
@@ -32,8 +102,7 @@ public class StructListExtractor<X> extends Extractor<List<X>> {
      */
     @Override
     public boolean validate(String match) {
-        var subMatches = match.split(delim);
-        return Arrays.stream(subMatches).allMatch(subMatch -> partParser.validate(subMatch));
+        return extract(match).isSuccess();
     }
 
     /**
@@ -44,7 +113,42 @@ public class StructListExtractor<X> extends Extractor<List<X>> {
      */
     @Override
     public List<X> parse(String match) throws ExtractorException {
-        var subMatches = match.split(delim);
-        return Arrays.stream(subMatches).map(subMatch -> partParser.parse(subMatch)).collect(Collectors.toList());
+        return extract(match).getValue();
+    }
+
+    /**
+     * Split matched string once and extract each part by nested extractor, reporting failure without throwing.
+     * Parts are handed to the nested extractor as regions of the matched string (see {@link Extractor#extract(CharSequence, int, int)}).
+     * @param match string of which value to extract.
+     * @return Extraction of the parsed (unmodifiable) list, or the first failure of the nested extractor (see {@link Extraction#getItemIndex()})
+     */
+    @Override
+    public Extraction<List<X>> extract(String match) {
+        if (match == null)
+            return Extraction.failure("StructListExtractor argument is null", null);
+
+        if (pool != null) {
+            Extraction<List<X>> extraction = ParallelListExtraction.extract(match, splitter, partParser, parallelThreshold, pool);
+            if (extraction != null)
+                return extraction;
+        }
+
+        List<X> values = new ArrayList<>();
+        Extraction<?>[] failure = new Extraction<?>[1];
+
+        boolean extracted = splitter.forEachPart(match, (seq, from, to) -> {
+            Extraction<X> part = partParser.extract(seq, from, to);
+            if (!part.isSuccess()) {
+                failure[0] = part;
+                return false;
+            }
+            values.add(part.getValue());
+            return true;
+        });
+
+        if (!extracted)
+            return failure[0].ofItem(values.size());
+
+        return Extraction.success(Collections.unmodifiableList(values));
     }
 }
@@ -17,6 +17,10 @@ public class AtomicRule extends Rule {
         evaluator = checkFunction;
     }
 
+    List<String> getHandlers() { return optHandlers; }
+
+    Function<Map<String, ? extends ParsedArgument<?>>, Boolean> getEvaluator() { return evaluator; }
+
     public boolean holds(ParsedArgList target) {
         var targetArgs = optHandlers
                 .stream()
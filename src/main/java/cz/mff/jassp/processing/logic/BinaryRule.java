@@ -15,6 +15,10 @@ public class BinaryRule extends Rule {
         op = operator;
     }
 
+    Rule getLeft() { return left; }
+    Rule getRight() { return right; }
+    Operator getOperator() { return op; }
+
     @Override
     public boolean holds(ParsedArgList target) {
         return switch (op) {
@@ -0,0 +1,99 @@
+package cz.mff.jassp.processing.logic;
+
+import cz.mff.jassp.parser.ParsedArgList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Rules compiled against ordinals of options, evaluated on a presence bitset of matched options.
+ * Bit {@code i} of the bitset (bit {@code i % 64} of word {@code i / 64}) is set iff option with ordinal {@code i} was matched.
+ * Rules are first compiled into a simplified DAG (see {@link RuleGraph}), in which {@link Rule#Exists(String)} leaves
+ * become bit tests and general {@link AtomicRule}s get a lightweight view of their arguments instead of a freshly
+ * collected map. Rules which cannot be compiled (custom subclasses of {@link Rule}, rules over unknown handlers)
+ * are evaluated by {@link Rule#holds(ParsedArgList)} as before.
+ * Rules which only depend on presence of options are precomputed together into a truth table or a BDD
+ * (see {@link PresenceFunction}), so checking them takes a single lookup regardless of their depth.
+ * Remaining rules are flattened into a {@link RuleProgram}, so that even very deep rule trees are evaluated without recursion.
+ * Compiled rules hold no mutable state and can be shared between threads.
+ */
+public final class CompiledRules {
+
+    /**
+     * Precomputed conjunction of presence-only rules, null if there are none.
+     */
+    private final PresenceFunction presenceRules;
+    private final RuleProgram program;
+
+    private final long sourceNodeCount;
+    private final int nodeCount;
+
+    private CompiledRules(RuleGraph graph, PresenceFunction presenceOnlyRules, List<RuleGraph.Node> generalRules) {
+        presenceRules = presenceOnlyRules;
+        program = RuleProgram.compile(graph, generalRules);
+        sourceNodeCount = graph.getSourceNodeCount();
+        nodeCount = graph.getNodeCount();
+    }
+
+    /**
+     * Compile rules against ordinals of options.
+     * @param rules rules to compile
+     * @param ordinalOf mapping of option handler to its ordinal, negative for unknown handlers
+     * @return compiled rules
+     */
+    public static CompiledRules compile(List<Rule> rules, ToIntFunction<String> ordinalOf) {
+        RuleGraph graph = new RuleGraph(rules, ordinalOf);
+
+        List<RuleGraph.Node> presenceOnly = new ArrayList<>();
+        List<RuleGraph.Node> general = new ArrayList<>();
+        for (RuleGraph.Node root : graph.getRoots()) {
+            (root.pure ? presenceOnly : general).add(root);
+        }
+
+        PresenceFunction presenceRules = presenceOnly.isEmpty() ? null : PresenceFunction.compile(presenceOnly);
+        if (presenceRules == null)
+            general = graph.getRoots();
+
+        return new CompiledRules(graph, presenceRules, general);
+    }
+
+    /**
+     * @return True if presence-only rules were precomputed into a truth table or a BDD
+     */
+    public boolean hasPrecomputedPresenceRules() { return presenceRules != null; }
+
+    /**
+     * @return number of nodes of the rule trees as they were written, counting every mention of a shared subtree
+     */
+    public long getSourceNodeCount() { return sourceNodeCount; }
+
+    /**
+     * @return number of distinct nodes left after merging identical subtrees and folding constants
+     */
+    public int getNodeCount() { return nodeCount; }
+
+    /**
+     * Check that all rules hold. Subexpressions shared by several rules are evaluated at most once.
+     * @param presence presence bitset of matched options
+     * @param target parsed arguments, used by general atomic rules
+     * @return True if every rule holds, false otherwise
+     */
+    public boolean holds(long[] presence, ParsedArgList target) {
+        return holds(presence, target, new RuleProgram.Workspace());
+    }
+
+    /**
+     * Check that all rules hold, reusing a workspace of the calling thread for evaluating general rules.
+     * @param presence presence bitset of matched options
+     * @param target parsed arguments, used by general atomic rules
+     * @param workspace workspace owned by the calling thread
+     * @return True if every rule holds, false otherwise
+     */
+    public boolean holds(long[] presence, ParsedArgList target, RuleProgram.Workspace workspace) {
+        if (presenceRules != null && !presenceRules.holds(presence))
+            return false;
+
+        return program.holds(presence, target, workspace);
+    }
+}
@@ -10,6 +10,8 @@ public class NotRule extends Rule{
         this.subrule = subrule;
     }
 
+    Rule getSubrule() { return subrule; }
+
     @Override
     public boolean holds(ParsedArgList target) {
         return !subrule.holds(target);
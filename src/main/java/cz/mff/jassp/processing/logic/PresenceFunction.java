@@ -0,0 +1,357 @@
+package cz.mff.jassp.processing.logic;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conjunction of presence-only rules (built of {@link Rule#Exists(String)}, {@link NotRule} and {@link BinaryRule}),
+ * precomputed at compile time so that evaluating it doesn't depend on depth of the rule trees.
+ * Rules over few options are precomputed into a truth table, rules over more options into a BDD.
+ * Both are computed from the {@link RuleGraph}, visiting each of its nodes once.
+ */
+abstract class PresenceFunction {
+
+    /**
+     * Largest number of options for which a truth table is built, the table then has 2^16 bits (8 KiB).
+     */
+    static final int MAX_TABLE_VARIABLES = 16;
+
+    /**
+     * Largest number of BDD nodes built before giving up and evaluating the rules as they are.
+     */
+    static final int MAX_BDD_NODES = 1 << 16;
+
+    /**
+     * Presence bit of each variable, variables are indexed in order of their nodes in the graph.
+     */
+    private final int[] words;
+    private final long[] masks;
+
+    PresenceFunction(int[] ordinals) {
+        words = new int[ordinals.length];
+        masks = new long[ordinals.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            words[i] = ordinals[i] >>> 6;
+            masks[i] = 1L << ordinals[i];
+        }
+    }
+
+    /**
+     * @param presence presence bitset of matched options
+     * @return True if all precomputed rules hold, false otherwise
+     */
+    abstract boolean holds(long[] presence);
+
+    /**
+     * @return number of options the rules depend on
+     */
+    int variableCount() { return words.length; }
+
+    final boolean isPresent(long[] presence, int variable) {
+        return (presence[words[variable]] & masks[variable]) != 0;
+    }
+
+    /**
+     * Precompute conjunction of presence-only rules.
+     * @param roots roots of pure nodes ({@link RuleGraph.Node#pure}) of a rule graph
+     * @return precomputed function, or null if the rules are too large to be precomputed
+     */
+    static PresenceFunction compile(List<RuleGraph.Node> roots) {
+        List<RuleGraph.Node> nodes = reachable(roots);
+
+        // variable of each presence node, indexed by node id
+        Map<Integer, Integer> variables = new HashMap<>();
+        List<Integer> ordinals = new ArrayList<>();
+        for (RuleGraph.Node node : nodes) {
+            if (node.kind == RuleGraph.Kind.PRESENCE) {
+                variables.put(node.id, ordinals.size());
+                ordinals.add(node.ordinal);
+            }
+        }
+        int[] ordinalArray = ordinals.stream().mapToInt(Integer::intValue).toArray();
+
+        if (ordinalArray.length <= MAX_TABLE_VARIABLES)
+            return new TruthTable(ordinalArray, nodes, roots, variables);
+
+        return Bdd.build(ordinalArray, nodes, roots, variables);
+    }
+
+    /**
+     * @return nodes reachable from the roots, ordered by their id (so children precede their parents)
+     */
+    private static List<RuleGraph.Node> reachable(List<RuleGraph.Node> roots) {
+        Map<Integer, RuleGraph.Node> found = new HashMap<>();
+        BitSet ids = new BitSet();
+        Deque<RuleGraph.Node> stack = new ArrayDeque<>(roots);
+
+        while (!stack.isEmpty()) {
+            RuleGraph.Node node = stack.pop();
+            if (ids.get(node.id))
+                continue;
+
+            ids.set(node.id);
+            found.put(node.id, node);
+            if (node.left != null)
+                stack.push(node.left);
+            if (node.right != null)
+                stack.push(node.right);
+        }
+
+        List<RuleGraph.Node> nodes = new ArrayList<>(found.size());
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            nodes.add(found.get(id));
+        }
+        return nodes;
+    }
+
+    /**
+     * Table with a bit for each combination of present options, bit {@code k} holds the result when variable
+     * {@code i} is present iff bit {@code i} of {@code k} is set.
+     */
+    static final class TruthTable extends PresenceFunction {
+
+        /**
+         * Truth tables of the first 6 variables within a single word.
+         */
+        private static final long[] wordPatterns = {
+                0xAAAAAAAAAAAAAAAAL,
+                0xCCCCCCCCCCCCCCCCL,
+                0xF0F0F0F0F0F0F0F0L,
+                0xFF00FF00FF00FF00L,
+                0xFFFF0000FFFF0000L,
+                0xFFFFFFFF00000000L
+        };
+
+        private final long[] table;
+
+        TruthTable(int[] ordinals, List<RuleGraph.Node> nodes, List<RuleGraph.Node> roots, Map<Integer, Integer> variables) {
+            super(ordinals);
+
+            int wordCount = Math.max(1, (1 << ordinals.length) >>> 6);
+
+            // remaining uses of each node's table, so that tables are dropped once they are no longer needed
+            Map<Integer, Integer> uses = new HashMap<>();
+            for (RuleGraph.Node node : nodes) {
+                if (node.left != null)
+                    uses.merge(node.left.id, 1, Integer::sum);
+                if (node.right != null)
+                    uses.merge(node.right.id, 1, Integer::sum);
+            }
+            for (RuleGraph.Node root : roots) {
+                uses.merge(root.id, 1, Integer::sum);
+            }
+
+            // all combinations are evaluated at once, 64 per word
+            Map<Integer, long[]> tables = new HashMap<>();
+            for (RuleGraph.Node node : nodes) {
+                long[] result = new long[wordCount];
+                switch (node.kind) {
+                    case TRUE -> Arrays.fill(result, -1L);
+                    case FALSE -> { }
+                    case PRESENCE -> fillVariable(result, variables.get(node.id));
+                    case NOT -> {
+                        long[] sub = use(tables, uses, node.left);
+                        for (int i = 0; i < wordCount; i++) {
+                            result[i] = ~sub[i];
+                        }
+                    }
+                    case BINARY -> {
+                        long[] left = use(tables, uses, node.left);
+                        long[] right = use(tables, uses, node.right);
+                        for (int i = 0; i < wordCount; i++) {
+                            result[i] = switch (node.op) {
+                                case OR -> left[i] | right[i];
+                                case IMPLIES -> ~left[i] | right[i];
+                                case EQ -> ~(left[i] ^ right[i]);
+                                case XOR -> left[i] ^ right[i];
+                                case NAND -> ~(left[i] & right[i]);
+                                case IMPLIEDBY -> left[i] | ~right[i];
+                            };
+                        }
+                    }
+                    default -> throw new LogicException("Rule node is not presence-only: " + node.kind);
+                }
+                tables.put(node.id, result);
+            }
+
+            table = new long[wordCount];
+            Arrays.fill(table, -1L);
+            for (RuleGraph.Node root : roots) {
+                long[] rootTable = tables.get(root.id);
+                for (int i = 0; i < wordCount; i++) {
+                    table[i] &= rootTable[i];
+                }
+            }
+        }
+
+        @Override
+        boolean holds(long[] presence) {
+            int key = 0;
+            for (int variable = 0; variable < variableCount(); variable++) {
+                if (isPresent(presence, variable))
+                    key |= 1 << variable;
+            }
+            return (table[key >>> 6] & (1L << key)) != 0;
+        }
+
+        private static long[] use(Map<Integer, long[]> tables, Map<Integer, Integer> uses, RuleGraph.Node node) {
+            long[] nodeTable = tables.get(node.id);
+            if (uses.merge(node.id, -1, Integer::sum) == 0)
+                tables.remove(node.id);
+            return nodeTable;
+        }
+
+        private static void fillVariable(long[] result, int variable) {
+            for (int i = 0; i < result.length; i++) {
+                if (variable < 6)
+                    result[i] = wordPatterns[variable];
+                else
+                    result[i] = ((i >>> (variable - 6)) & 1) != 0 ? -1L : 0L;
+            }
+        }
+    }
+
+    /**
+     * Reduced ordered binary decision diagram, variables are ordered by their nodes in the graph.
+     * Node 0 is the false terminal, node 1 the true terminal.
+     */
+    static final class Bdd extends PresenceFunction {
+
+        private final int[] variable;
+        private final int[] low;
+        private final int[] high;
+        private final int root;
+
+        private Bdd(int[] ordinals, Builder builder, int root) {
+            super(ordinals);
+            variable = builder.variable.stream().mapToInt(Integer::intValue).toArray();
+            low = builder.low.stream().mapToInt(Integer::intValue).toArray();
+            high = builder.high.stream().mapToInt(Integer::intValue).toArray();
+            this.root = root;
+        }
+
+        static Bdd build(int[] ordinals, List<RuleGraph.Node> nodes, List<RuleGraph.Node> roots, Map<Integer, Integer> variables) {
+            Builder builder = new Builder();
+
+            // diagram of each graph node, indexed by node id
+            Map<Integer, Integer> diagrams = new HashMap<>();
+            for (RuleGraph.Node node : nodes) {
+                int diagram = switch (node.kind) {
+                    case TRUE -> Builder.TRUE;
+                    case FALSE -> Builder.FALSE;
+                    case PRESENCE -> builder.node(variables.get(node.id), Builder.FALSE, Builder.TRUE);
+                    case NOT -> builder.not(diagrams.get(node.left.id));
+                    case BINARY -> builder.apply(node.op, diagrams.get(node.left.id), diagrams.get(node.right.id));
+                    default -> throw new LogicException("Rule node is not presence-only: " + node.kind);
+                };
+                if (diagram < 0)
+                    return null;
+                diagrams.put(node.id, diagram);
+            }
+
+            int root = Builder.TRUE;
+            for (RuleGraph.Node rootNode : roots) {
+                // a AND b == NOT (a NAND b)
+                root = builder.apply(BinaryRule.Operator.NAND, root, diagrams.get(rootNode.id));
+                root = root < 0 ? -1 : builder.not(root);
+                if (root < 0)
+                    return null;
+            }
+
+            return new Bdd(ordinals, builder, root);
+        }
+
+        @Override
+        boolean holds(long[] presence) {
+            int node = root;
+            while (node > Builder.TRUE) {
+                node = isPresent(presence, variable[node]) ? high[node] : low[node];
+            }
+            return node == Builder.TRUE;
+        }
+
+        /**
+         * @return number of nodes of the diagram, including terminals
+         */
+        int nodeCount() { return variable.length; }
+
+        private static final class Builder {
+            static final int FALSE = 0;
+            static final int TRUE = 1;
+
+            private record Node(int variable, int low, int high) {}
+            private record Operation(BinaryRule.Operator op, int left, int right) {}
+
+            private final List<Integer> variable = new ArrayList<>();
+            private final List<Integer> low = new ArrayList<>();
+            private final List<Integer> high = new ArrayList<>();
+            private final Map<Node, Integer> unique = new HashMap<>();
+            private final Map<Operation, Integer> computed = new HashMap<>();
+
+            Builder() {
+                // terminals are ordered after all variables
+                for (int terminal = 0; terminal < 2; terminal++) {
+                    variable.add(Integer.MAX_VALUE);
+                    low.add(terminal);
+                    high.add(terminal);
+                }
+            }
+
+            int not(int node) {
+                return apply(BinaryRule.Operator.XOR, node, TRUE);
+            }
+
+            int apply(BinaryRule.Operator op, int left, int right) {
+                if (left <= TRUE && right <= TRUE)
+                    return RuleGraph.evaluate(op, left == TRUE, right == TRUE) ? TRUE : FALSE;
+
+                Operation operation = new Operation(op, left, right);
+                Integer known = computed.get(operation);
+                if (known != null)
+                    return known;
+
+                int leftVariable = variable.get(left);
+                int rightVariable = variable.get(right);
+                int top = Math.min(leftVariable, rightVariable);
+
+                int lowResult = apply(op,
+                        leftVariable == top ? low.get(left) : left,
+                        rightVariable == top ? low.get(right) : right);
+                int highResult = lowResult < 0 ? -1 : apply(op,
+                        leftVariable == top ? high.get(left) : left,
+                        rightVariable == top ? high.get(right) : right);
+                int result = highResult < 0 ? -1 : node(top, lowResult, highResult);
+
+                if (result >= 0)
+                    computed.put(operation, result);
+                return result;
+            }
+
+            int node(int nodeVariable, int lowNode, int highNode) {
+                if (lowNode == highNode)
+                    return lowNode;
+
+                Node key = new Node(nodeVariable, lowNode, highNode);
+                Integer known = unique.get(key);
+                if (known != null)
+                    return known;
+
+                if (variable.size() >= MAX_BDD_NODES)
+                    return -1;
+
+                int index = variable.size();
+                variable.add(nodeVariable);
+                low.add(lowNode);
+                high.add(highNode);
+                unique.put(key, index);
+                return index;
+            }
+        }
+    }
+}
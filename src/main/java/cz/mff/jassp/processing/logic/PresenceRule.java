@@ -0,0 +1,25 @@
+package cz.mff.jassp.processing.logic;
+
+import cz.mff.jassp.parser.ParsedArgList;
+
+import java.util.List;
+
+/**
+ * Atomic rule which holds when a single option was matched during parsing, created by {@link Rule#Exists(String)}.
+ * Unlike general atomic rules, it only depends on presence of the option, so it can be compiled into a bit test.
+ */
+public class PresenceRule extends AtomicRule {
+    private final String handler;
+
+    public PresenceRule(String optionHandler) {
+        super(List.of(optionHandler), map -> map.get(optionHandler).wasMatched());
+        handler = optionHandler;
+    }
+
+    public String getHandler() { return handler; }
+
+    @Override
+    public boolean holds(ParsedArgList target) {
+        return target.findArgument(handler).wasMatched();
+    }
+}
@@ -2,9 +2,6 @@ package cz.mff.jassp.processing.logic;
 
 
 import cz.mff.jassp.parser.ParsedArgList;
-import cz.mff.jassp.parser.ParsedArgument;
-
-import java.util.List;
 
 /**
  * A class which enables enforcing rules on top of parsed results.
@@ -39,8 +36,7 @@ public abstract class Rule {
 
     //region Built-in shorthand factories
     public static Rule Exists(String handler) {
-        return new AtomicRule(List.of(handler),
-                map -> map.values().stream().allMatch(ParsedArgument::wasMatched));
+        return new PresenceRule(handler);
     }
 
     public static Rule Not(Rule subrule) { return new NotRule(subrule); }
@@ -0,0 +1,424 @@
+package cz.mff.jassp.processing.logic;
+
+import cz.mff.jassp.parser.ParsedArgList;
+import cz.mff.jassp.parser.ParsedArgument;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Rule trees compiled into a single DAG shared by all rules.
+ * Identical subtrees are merged into one node (hash-consing), double negations are removed and constant
+ * subexpressions (e.g. {@code Or(a, Not(a))}) are folded. Subexpressions are only dropped when they depend
+ * solely on presence of options, so that general atomic rules are evaluated whenever they were before.
+ * Nodes referenced more than once get a memo slot, so that they are evaluated at most once per parse.
+ * The graph is evaluated by a {@link RuleProgram} emitted from it.
+ * Rule trees are traversed iteratively, so that arbitrarily deep trees can be compiled.
+ */
+final class RuleGraph {
+
+    enum Kind { TRUE, FALSE, PRESENCE, ATOMIC, FALLBACK, NOT, BINARY }
+
+    /**
+     * Values of memo slots, slots of nodes which were not evaluated yet are 0.
+     */
+    static final byte MEMO_FALSE = 1;
+    static final byte MEMO_TRUE = 2;
+
+    static final class Node {
+        final int id;
+        final Kind kind;
+        final BinaryRule.Operator op;
+        final Node left;
+        final Node right;
+        final int ordinal;
+        final Rule rule;
+        final List<String> handlers;
+        final Function<Map<String, ? extends ParsedArgument<?>>, Boolean> evaluator;
+
+        /**
+         * True if node only depends on presence of options.
+         */
+        final boolean pure;
+
+        int references = 0;
+        int memoSlot = -1;
+
+        private Node(int id, Kind kind, BinaryRule.Operator op, Node left, Node right, int ordinal, Rule rule,
+                     List<String> handlers, Function<Map<String, ? extends ParsedArgument<?>>, Boolean> evaluator) {
+            this.id = id;
+            this.kind = kind;
+            this.op = op;
+            this.left = left;
+            this.right = right;
+            this.ordinal = ordinal;
+            this.rule = rule;
+            this.handlers = handlers;
+            this.evaluator = evaluator;
+            this.pure = switch (kind) {
+                case TRUE, FALSE, PRESENCE -> true;
+                case ATOMIC, FALLBACK -> false;
+                case NOT -> left.pure;
+                case BINARY -> left.pure && right.pure;
+            };
+        }
+
+        boolean isConstant() { return kind == Kind.TRUE || kind == Kind.FALSE; }
+    }
+
+    private record Key(Kind kind, BinaryRule.Operator op, int left, int right, int ordinal, Object payload, Object evaluator) {}
+
+    private final ToIntFunction<String> ordinalOf;
+
+    /**
+     * All created nodes, children always precede their parents.
+     */
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<Key, Node> unique = new HashMap<>();
+    private final Node trueNode;
+    private final Node falseNode;
+
+    private final List<Node> roots = new ArrayList<>();
+    private long sourceNodeCount = 0;
+    private int nodeCount = 0;
+    private int memoSize = 0;
+
+    /**
+     * Compile rules into a DAG.
+     * @param rules rules to compile, which are joined by conjunction
+     * @param ordinalOf mapping of option handler to its ordinal, negative for unknown handlers
+     */
+    RuleGraph(List<Rule> rules, ToIntFunction<String> ordinalOf) {
+        this.ordinalOf = ordinalOf;
+        trueNode = unique(Kind.TRUE, null, null, null, -1, null, null, null);
+        falseNode = unique(Kind.FALSE, null, null, null, -1, null, null, null);
+
+        Map<Rule, Node> compiled = new IdentityHashMap<>();
+        Map<Rule, Long> treeSizes = new IdentityHashMap<>();
+        Set<Node> seenRoots = new HashSet<>();
+
+        for (Rule rule : rules) {
+            Node root = compile(rule, compiled, treeSizes);
+            sourceNodeCount += treeSizes.get(rule);
+
+            // rules are joined by conjunction, so tautologies and repeated rules can be skipped
+            if (root != trueNode && seenRoots.add(root))
+                roots.add(root);
+        }
+
+        countReferences();
+    }
+
+    /**
+     * @return roots of compiled rules, in order of the rules
+     */
+    List<Node> getRoots() { return roots; }
+
+    /**
+     * @return number of nodes of the rule trees, as they were written
+     */
+    long getSourceNodeCount() { return sourceNodeCount; }
+
+    /**
+     * @return number of distinct nodes reachable from the roots after simplification
+     */
+    int getNodeCount() { return nodeCount; }
+
+    /**
+     * @return number of memo slots needed to evaluate the graph
+     */
+    int getMemoSize() { return memoSize; }
+
+    //region Compilation
+
+    private Node compile(Rule root, Map<Rule, Node> compiled, Map<Rule, Long> treeSizes) {
+        Deque<Rule> stack = new ArrayDeque<>();
+        stack.push(root);
+
+        while (!stack.isEmpty()) {
+            Rule rule = stack.peek();
+            if (compiled.containsKey(rule)) {
+                stack.pop();
+                continue;
+            }
+
+            Rule[] children = childrenOf(rule);
+            boolean ready = true;
+            for (Rule child : children) {
+                if (!compiled.containsKey(child)) {
+                    stack.push(child);
+                    ready = false;
+                }
+            }
+            if (!ready)
+                continue;
+
+            stack.pop();
+
+            long treeSize = 1;
+            for (Rule child : children) {
+                treeSize += treeSizes.get(child);
+            }
+            treeSizes.put(rule, treeSize);
+            compiled.put(rule, create(rule, compiled));
+        }
+
+        return compiled.get(root);
+    }
+
+    private static Rule[] childrenOf(Rule rule) {
+        if (rule.getClass() == NotRule.class)
+            return new Rule[]{((NotRule) rule).getSubrule()};
+        if (rule.getClass() == BinaryRule.class)
+            return new Rule[]{((BinaryRule) rule).getLeft(), ((BinaryRule) rule).getRight()};
+        return new Rule[0];
+    }
+
+    /**
+     * Create node of a rule whose children were already compiled.
+     * Subclasses of built-in rules may override {@link Rule#holds(ParsedArgList)}, so they are only evaluated as they are.
+     */
+    private Node create(Rule rule, Map<Rule, Node> compiled) {
+        if (rule.getClass() == PresenceRule.class) {
+            int ordinal = ordinalOf.applyAsInt(((PresenceRule) rule).getHandler());
+            return ordinal < 0 ? fallback(rule) : unique(Kind.PRESENCE, null, null, null, ordinal, null, null, null);
+        }
+
+        if (rule.getClass() == AtomicRule.class) {
+            AtomicRule atomicRule = (AtomicRule) rule;
+            List<String> handlers = atomicRule.getHandlers();
+            // unknown or duplicate handlers fail inside AtomicRule#holds, which is kept as is
+            boolean compilable = new HashSet<>(handlers).size() == handlers.size()
+                    && handlers.stream().allMatch(handler -> ordinalOf.applyAsInt(handler) >= 0);
+            if (!compilable)
+                return fallback(rule);
+
+            List<String> handlersCopy = List.copyOf(handlers);
+            return unique(Kind.ATOMIC, null, null, null, -1, null, handlersCopy, atomicRule.getEvaluator());
+        }
+
+        if (rule.getClass() == NotRule.class)
+            return not(compiled.get(((NotRule) rule).getSubrule()));
+
+        if (rule.getClass() == BinaryRule.class) {
+            BinaryRule binaryRule = (BinaryRule) rule;
+            return binary(binaryRule.getOperator(), compiled.get(binaryRule.getLeft()), compiled.get(binaryRule.getRight()));
+        }
+
+        return fallback(rule);
+    }
+
+    private Node fallback(Rule rule) {
+        return unique(Kind.FALLBACK, null, null, null, -1, rule, null, null);
+    }
+
+    private Node constant(boolean value) {
+        return value ? trueNode : falseNode;
+    }
+
+    private Node not(Node node) {
+        if (node.isConstant())
+            return constant(node == falseNode);
+
+        if (node.kind == Kind.NOT)
+            return node.left;
+
+        return unique(Kind.NOT, null, node, null, -1, null, null, null);
+    }
+
+    private Node binary(BinaryRule.Operator op, Node left, Node right) {
+        if (left.isConstant() && right.isConstant())
+            return constant(evaluate(op, left == trueNode, right == trueNode));
+
+        if (left.isConstant() || right.isConstant()) {
+            Node folded = foldConstant(op, left, right);
+            if (folded != null)
+                return folded;
+        }
+
+        if (left == right) {
+            switch (op) {
+                case OR: return left;
+                case NAND: return not(left);
+                default:
+                    if (left.pure)
+                        return constant(op != BinaryRule.Operator.XOR);
+            }
+        }
+
+        if (left.pure && right.pure) {
+            if (left.kind == Kind.NOT && left.left == right || right.kind == Kind.NOT && right.left == left) {
+                switch (op) {
+                    case OR, NAND, XOR: return trueNode;
+                    case EQ: return falseNode;
+                    case IMPLIES: return right;
+                    case IMPLIEDBY: return left;
+                }
+            }
+
+            // normal form of pure nodes, evaluation order doesn't matter for them
+            if (op == BinaryRule.Operator.IMPLIEDBY)
+                return binary(BinaryRule.Operator.IMPLIES, right, left);
+
+            if (op != BinaryRule.Operator.IMPLIES && left.id > right.id) {
+                Node swap = left;
+                left = right;
+                right = swap;
+            }
+        }
+
+        return unique(Kind.BINARY, op, left, right, -1, null, null, null);
+    }
+
+    /**
+     * Fold binary node with exactly one constant operand.
+     * @return folded node, or null if folding would skip evaluation of an impure operand
+     */
+    private Node foldConstant(BinaryRule.Operator op, Node left, Node right) {
+        boolean constantLeft = left.isConstant();
+        boolean value = constantLeft ? left == trueNode : right == trueNode;
+        Node other = constantLeft ? right : left;
+
+        // the result no longer depends on the other operand
+        Node absorbing = switch (op) {
+            case OR -> value ? trueNode : null;
+            case NAND -> value ? null : trueNode;
+            case IMPLIES -> constantLeft ? (value ? null : trueNode) : (value ? trueNode : null);
+            case IMPLIEDBY -> constantLeft ? (value ? trueNode : null) : (value ? null : trueNode);
+            case EQ, XOR -> null;
+        };
+        if (absorbing != null)
+            return other.pure ? absorbing : null;
+
+        // the result is the other operand or its negation
+        boolean negated = switch (op) {
+            case OR -> false;
+            case NAND -> true;
+            case IMPLIES -> !constantLeft;
+            case IMPLIEDBY -> constantLeft;
+            case EQ -> !value;
+            case XOR -> value;
+        };
+        return negated ? not(other) : other;
+    }
+
+    static boolean evaluate(BinaryRule.Operator op, boolean left, boolean right) {
+        return switch (op) {
+            case OR -> left || right;
+            case IMPLIES -> !left || right;
+            case EQ -> left == right;
+            case XOR -> left != right;
+            case NAND -> !(left && right);
+            case IMPLIEDBY -> left || !right;
+        };
+    }
+
+    private Node unique(Kind kind, BinaryRule.Operator op, Node left, Node right, int ordinal, Rule rule,
+                        List<String> handlers, Function<Map<String, ? extends ParsedArgument<?>>, Boolean> evaluator) {
+        Key key = new Key(kind, op, left == null ? -1 : left.id, right == null ? -1 : right.id, ordinal,
+                rule != null ? rule : handlers, evaluator);
+
+        Node node = unique.get(key);
+        if (node == null) {
+            node = new Node(nodes.size(), kind, op, left, right, ordinal, rule, handlers, evaluator);
+            nodes.add(node);
+            unique.put(key, node);
+        }
+        return node;
+    }
+
+    /**
+     * Count references of nodes reachable from the roots and give memo slots to shared non-leaf nodes.
+     */
+    private void countReferences() {
+        for (Node root : roots) {
+            root.references++;
+        }
+
+        // parents always follow their children, so references of a node are final once it is reached
+        for (int id = nodes.size() - 1; id >= 0; id--) {
+            Node node = nodes.get(id);
+            if (node.references == 0)
+                continue;
+
+            nodeCount++;
+            if (node.left != null)
+                node.left.references++;
+            if (node.right != null)
+                node.right.references++;
+
+            boolean leaf = node.kind == Kind.TRUE || node.kind == Kind.FALSE || node.kind == Kind.PRESENCE;
+            if (node.references > 1 && !leaf)
+                node.memoSlot = memoSize++;
+        }
+    }
+
+    //endregion
+
+    /**
+     * Read-only map of handlers of an atomic rule to their parsed arguments, which are looked up on access.
+     */
+    static final class ArgumentView extends AbstractMap<String, ParsedArgument<?>> {
+        private final List<String> handlers;
+        private final ParsedArgList target;
+
+        ArgumentView(List<String> handlers, ParsedArgList target) {
+            this.handlers = handlers;
+            this.target = target;
+        }
+
+        @Override
+        public ParsedArgument<?> get(Object key) {
+            return handlers.contains(key) ? target.findArgument((String) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return handlers.contains(key);
+        }
+
+        @Override
+        public int size() {
+            return handlers.size();
+        }
+
+        @Override
+        public Set<Entry<String, ParsedArgument<?>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, ParsedArgument<?>>> iterator() {
+                    Iterator<String> handlerIterator = handlers.iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return handlerIterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, ParsedArgument<?>> next() {
+                            String handler = handlerIterator.next();
+                            return new SimpleImmutableEntry<>(handler, target.findArgument(handler));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return handlers.size();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package cz.mff.jassp.processing.logic;
+
+import cz.mff.jassp.parser.ParsedArgList;
+import cz.mff.jassp.parser.ParsedArgument;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Rules compiled into a flat postfix program, which is run by a loop with an explicit stack instead of recursion.
+ * Evaluation is therefore stack-safe for arbitrarily deep rule trees (e.g. generated chains of thousands of rules),
+ * including threads with small stacks. Short-circuit semantics of {@link BinaryRule} are kept by conditional jumps.
+ * The program is emitted from a {@link RuleGraph}, nodes shared by several rules are compiled into subroutines
+ * whose results are memoized, so that each of them is evaluated at most once per run.
+ * Programs hold no mutable state and can be shared between threads.
+ */
+public final class RuleProgram {
+
+    //region Instructions
+
+    /** Push constant true. */
+    private static final int PUSH_TRUE = 0;
+    /** Push constant false. */
+    private static final int PUSH_FALSE = 1;
+    /** Push presence of option, operand: ordinal. */
+    private static final int TEST = 2;
+    /** Push result of an atomic rule, operand: index of the atomic rule. */
+    private static final int ATOMIC = 3;
+    /** Push result of {@link Rule#holds(ParsedArgList)}, operand: index of the rule. */
+    private static final int FALLBACK = 4;
+    /** Negate top of the stack. */
+    private static final int NOT = 5;
+    /** Replace two top values by their equivalence. */
+    private static final int EQ = 6;
+    /** Replace two top values by their exclusive disjunction. */
+    private static final int XOR = 7;
+    /** If top is true, jump and keep it, otherwise pop it. Operand: target. */
+    private static final int JUMP_IF_TRUE = 8;
+    /** If top is false, jump and keep it, otherwise pop it. Operand: target. */
+    private static final int JUMP_IF_FALSE = 9;
+    /** Push memoized result of a subroutine, or call it if it wasn't run yet. Operand: memo slot. */
+    private static final int CALL = 10;
+    /** Memoize top as result of a subroutine and return to the caller. Operand: memo slot. */
+    private static final int RETURN = 11;
+    /** Pop a rule result and stop with false if it doesn't hold. */
+    private static final int REQUIRE = 12;
+    /** Stop with true. */
+    private static final int HALT = 13;
+
+    //endregion
+
+    private final int[] code;
+
+    /**
+     * Start of subroutine of each memo slot.
+     */
+    private final int[] subroutines;
+    private final List<String>[] atomicHandlers;
+    private final Function<Map<String, ? extends ParsedArgument<?>>, Boolean>[] atomicEvaluators;
+    private final Rule[] fallbacks;
+
+    private RuleProgram(Emitter emitter) {
+        code = Arrays.copyOf(emitter.code, emitter.size);
+        subroutines = emitter.subroutines;
+        atomicHandlers = emitter.atomicHandlers.toArray(newHandlerArray(0));
+        atomicEvaluators = emitter.atomicEvaluators.toArray(newEvaluatorArray(0));
+        fallbacks = emitter.fallbacks.toArray(new Rule[0]);
+    }
+
+    /**
+     * Compile rules against ordinals of options into a program.
+     * @param rules rules to compile, the program checks that all of them hold
+     * @param ordinalOf mapping of option handler to its ordinal, negative for unknown handlers
+     * @return compiled program
+     */
+    public static RuleProgram compile(List<Rule> rules, ToIntFunction<String> ordinalOf) {
+        RuleGraph graph = new RuleGraph(rules, ordinalOf);
+        return compile(graph, graph.getRoots());
+    }
+
+    /**
+     * Compile roots of a rule graph into a program.
+     */
+    static RuleProgram compile(RuleGraph graph, List<RuleGraph.Node> roots) {
+        return new RuleProgram(new Emitter(graph.getMemoSize(), roots));
+    }
+
+    /**
+     * @return number of instructions (including operands) of the program
+     */
+    public int size() { return code.length; }
+
+    /**
+     * Check that all rules hold.
+     * @param target parsed arguments
+     * @return True if every rule holds, false otherwise
+     */
+    public boolean holds(ParsedArgList target) {
+        return holds(target.getPresenceBits(), target);
+    }
+
+    /**
+     * Check that all rules hold.
+     * @param presence presence bitset of matched options, see {@link CompiledRules}
+     * @param target parsed arguments, used by general atomic rules
+     * @return True if every rule holds, false otherwise
+     */
+    public boolean holds(long[] presence, ParsedArgList target) {
+        return holds(presence, target, new Workspace());
+    }
+
+    /**
+     * Check that all rules hold, reusing stacks of the workspace instead of allocating them.
+     * @param presence presence bitset of matched options, see {@link CompiledRules}
+     * @param target parsed arguments, used by general atomic rules
+     * @param workspace workspace owned by the calling thread
+     * @return True if every rule holds, false otherwise
+     */
+    public boolean holds(long[] presence, ParsedArgList target, Workspace workspace) {
+        boolean[] stack = workspace.stack;
+        int top = -1;
+        int[] returns = workspace.returns;
+        int calls = 0;
+        byte[] memo = workspace.memo(subroutines.length);
+
+        int pc = 0;
+        while (true) {
+            // every instruction pushes at most one value
+            if (top + 1 == stack.length)
+                stack = workspace.stack = Arrays.copyOf(stack, stack.length * 2);
+
+            switch (code[pc]) {
+                case PUSH_TRUE -> {
+                    stack[++top] = true;
+                    pc++;
+                }
+                case PUSH_FALSE -> {
+                    stack[++top] = false;
+                    pc++;
+                }
+                case TEST -> {
+                    int ordinal = code[pc + 1];
+                    stack[++top] = (presence[ordinal >>> 6] & (1L << ordinal)) != 0;
+                    pc += 2;
+                }
+                case ATOMIC -> {
+                    int index = code[pc + 1];
+                    stack[++top] = atomicEvaluators[index].apply(new RuleGraph.ArgumentView(atomicHandlers[index], target));
+                    pc += 2;
+                }
+                case FALLBACK -> {
+                    stack[++top] = fallbacks[code[pc + 1]].holds(target);
+                    pc += 2;
+                }
+                case NOT -> {
+                    stack[top] = !stack[top];
+                    pc++;
+                }
+                case EQ -> {
+                    top--;
+                    stack[top] = stack[top] == stack[top + 1];
+                    pc++;
+                }
+                case XOR -> {
+                    top--;
+                    stack[top] = stack[top] != stack[top + 1];
+                    pc++;
+                }
+                case JUMP_IF_TRUE -> {
+                    if (stack[top]) {
+                        pc = code[pc + 1];
+                    }
+                    else {
+                        top--;
+                        pc += 2;
+                    }
+                }
+                case JUMP_IF_FALSE -> {
+                    if (!stack[top]) {
+                        pc = code[pc + 1];
+                    }
+                    else {
+                        top--;
+                        pc += 2;
+                    }
+                }
+                case CALL -> {
+                    int slot = code[pc + 1];
+                    if (memo[slot] != 0) {
+                        stack[++top] = memo[slot] == RuleGraph.MEMO_TRUE;
+                        pc += 2;
+                    }
+                    else {
+                        if (calls == returns.length)
+                            returns = workspace.returns = Arrays.copyOf(returns, returns.length * 2);
+                        returns[calls++] = pc + 2;
+                        pc = subroutines[slot];
+                    }
+                }
+                case RETURN -> {
+                    memo[code[pc + 1]] = stack[top] ? RuleGraph.MEMO_TRUE : RuleGraph.MEMO_FALSE;
+                    pc = returns[--calls];
+                }
+                case REQUIRE -> {
+                    if (!stack[top--])
+                        return false;
+                    pc++;
+                }
+                case HALT -> {
+                    return true;
+                }
+                default -> throw new LogicException("Invalid rule program instruction: " + code[pc]);
+            }
+        }
+    }
+
+    /**
+     * Stacks and memo of program runs, which can be reused by consecutive runs of any programs.
+     * A workspace must not be used by several threads at once.
+     */
+    public static final class Workspace {
+        private boolean[] stack = new boolean[16];
+        private int[] returns = new int[16];
+        private byte[] memo = new byte[0];
+
+        /**
+         * @return cleared memo with at least given number of slots
+         */
+        private byte[] memo(int size) {
+            if (memo.length < size)
+                memo = new byte[size];
+            else
+                Arrays.fill(memo, 0, size, (byte) 0);
+            return memo;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String>[] newHandlerArray(int size) {
+        return (List<String>[]) new List<?>[size];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Map<String, ? extends ParsedArgument<?>>, Boolean>[] newEvaluatorArray(int size) {
+        return (Function<Map<String, ? extends ParsedArgument<?>>, Boolean>[]) new Function<?, ?>[size];
+    }
+
+    /**
+     * Emits code of graph nodes in postfix order, using an explicit stack of pending tasks.
+     */
+    private static final class Emitter {
+
+        private enum TaskKind { VISIT, EMIT, JUMP, LABEL }
+
+        /**
+         * Pending task: emit code of a node, emit an instruction, emit a jump to a label or place the label.
+         * Label holds position of its jump's operand, which is patched once the label is placed.
+         */
+        private record Task(TaskKind kind, RuleGraph.Node node, int instruction, int[] label) {
+            static Task visit(RuleGraph.Node node) { return new Task(TaskKind.VISIT, node, -1, null); }
+            static Task emit(int instruction) { return new Task(TaskKind.EMIT, null, instruction, null); }
+            static Task jump(int instruction, int[] label) { return new Task(TaskKind.JUMP, null, instruction, label); }
+            static Task label(int[] label) { return new Task(TaskKind.LABEL, null, -1, label); }
+        }
+
+        private int[] code = new int[64];
+        private int size = 0;
+
+        private final int[] subroutines;
+        private final List<List<String>> atomicHandlers = new ArrayList<>();
+        private final List<Function<Map<String, ? extends ParsedArgument<?>>, Boolean>> atomicEvaluators = new ArrayList<>();
+        private final List<Rule> fallbacks = new ArrayList<>();
+
+        /**
+         * Shared nodes whose subroutine was called but not emitted yet.
+         */
+        private final Deque<RuleGraph.Node> pendingSubroutines = new ArrayDeque<>();
+
+        Emitter(int memoSize, List<RuleGraph.Node> roots) {
+            subroutines = new int[memoSize];
+            Arrays.fill(subroutines, -1);
+
+            for (RuleGraph.Node root : roots) {
+                emitNode(root, false);
+                append(REQUIRE);
+            }
+            append(HALT);
+
+            while (!pendingSubroutines.isEmpty()) {
+                RuleGraph.Node node = pendingSubroutines.pop();
+                subroutines[node.memoSlot] = size;
+                emitNode(node, true);
+                append(RETURN, node.memoSlot);
+            }
+        }
+
+        /**
+         * Emit code which pushes result of the node.
+         * @param body True if the node itself is emitted as body of its subroutine
+         */
+        private void emitNode(RuleGraph.Node root, boolean body) {
+            Deque<Task> tasks = new ArrayDeque<>();
+            tasks.push(Task.visit(root));
+
+            while (!tasks.isEmpty()) {
+                Task task = tasks.pop();
+
+                switch (task.kind()) {
+                    case EMIT -> append(task.instruction());
+                    case JUMP -> {
+                        append(task.instruction(), -1);
+                        task.label()[0] = size - 1;
+                    }
+                    case LABEL -> code[task.label()[0]] = size;
+                    case VISIT -> visit(tasks, task.node(), body && task.node() == root);
+                }
+            }
+        }
+
+        /**
+         * Emit code of a node, or push tasks emitting it.
+         * @param body True if the node is emitted as body of its own subroutine
+         */
+        private void visit(Deque<Task> tasks, RuleGraph.Node node, boolean body) {
+            if (node.memoSlot >= 0 && !body) {
+                append(CALL, node.memoSlot);
+                if (subroutines[node.memoSlot] == -1) {
+                    // reserved until the subroutine is emitted
+                    subroutines[node.memoSlot] = -2;
+                    pendingSubroutines.push(node);
+                }
+                return;
+            }
+
+            switch (node.kind) {
+                case TRUE -> append(PUSH_TRUE);
+                case FALSE -> append(PUSH_FALSE);
+                case PRESENCE -> append(TEST, node.ordinal);
+                case ATOMIC -> {
+                    append(ATOMIC, atomicHandlers.size());
+                    atomicHandlers.add(node.handlers);
+                    atomicEvaluators.add(node.evaluator);
+                }
+                case FALLBACK -> {
+                    append(FALLBACK, fallbacks.size());
+                    fallbacks.add(node.rule);
+                }
+                case NOT -> {
+                    // tasks run in reverse order of pushing
+                    tasks.push(Task.emit(NOT));
+                    tasks.push(Task.visit(node.left));
+                }
+                case BINARY -> pushBinary(tasks, node);
+            }
+        }
+
+        private void pushBinary(Deque<Task> tasks, RuleGraph.Node node) {
+            RuleGraph.Node left = node.left;
+            RuleGraph.Node right = node.right;
+
+            switch (node.op) {
+                case EQ, XOR -> {
+                    tasks.push(Task.emit(node.op == BinaryRule.Operator.EQ ? EQ : XOR));
+                    tasks.push(Task.visit(right));
+                    tasks.push(Task.visit(left));
+                }
+                // left || right
+                case OR -> pushShortCircuit(tasks, left, false, JUMP_IF_TRUE, right, false, false);
+                // !left || right
+                case IMPLIES -> pushShortCircuit(tasks, left, true, JUMP_IF_TRUE, right, false, false);
+                // left || !right
+                case IMPLIEDBY -> pushShortCircuit(tasks, left, false, JUMP_IF_TRUE, right, true, false);
+                // !(left && right)
+                case NAND -> pushShortCircuit(tasks, left, false, JUMP_IF_FALSE, right, false, true);
+            }
+        }
+
+        /**
+         * Push tasks emitting: left [NOT] JUMP end; right [NOT]; end: [NOT]
+         */
+        private void pushShortCircuit(Deque<Task> tasks, RuleGraph.Node left, boolean negateLeft, int jump,
+                                      RuleGraph.Node right, boolean negateRight, boolean negateResult) {
+            int[] target = new int[1];
+
+            if (negateResult)
+                tasks.push(Task.emit(NOT));
+            tasks.push(Task.label(target));
+            if (negateRight)
+                tasks.push(Task.emit(NOT));
+            tasks.push(Task.visit(right));
+            tasks.push(Task.jump(jump, target));
+            if (negateLeft)
+                tasks.push(Task.emit(NOT));
+            tasks.push(Task.visit(left));
+        }
+
+        private void append(int instruction) {
+            ensureCapacity(1);
+            code[size++] = instruction;
+        }
+
+        private void append(int instruction, int operand) {
+            ensureCapacity(2);
+            code[size++] = instruction;
+            code[size++] = operand;
+        }
+
+        private void ensureCapacity(int count) {
+            if (size + count > code.length)
+                code = Arrays.copyOf(code, Math.max(code.length * 2, size + count));
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package cz.mff.jassp.test_suite_2;
 
+import cz.mff.jassp.option.CompiledOptionList;
+import cz.mff.jassp.option.Option;
 import cz.mff.jassp.option.OptionList;
 import org.junit.Assert;
 import org.junit.Test;
@@ -60,4 +62,42 @@ public final class OptionListTest {
             addOption(simpleLongOption("handler", thisIsDuplicate));
         }};
     }
+
+    @Test
+    public void compiledListFindsOptionsByAnyAliasAndHandler() {
+        Option option = Option.builder()
+                .setHandler("handler")
+                .addShortAlias("x")
+                .addLongAlias("xxx")
+                .build();
+        OptionList optionList = new OptionList() {{
+            addOption(simpleShortOption("other", "y"));
+            addOption(option);
+        }};
+
+        CompiledOptionList compiled = optionList.compile();
+
+        Assert.assertSame(option, compiled.findOption("x"));
+        Assert.assertSame(option, compiled.findOption("xxx"));
+        Assert.assertSame(option, compiled.getOption("handler"));
+        Assert.assertEquals(1, compiled.ordinalOf("handler"));
+        Assert.assertNull(compiled.findOption("handler"));
+        Assert.assertEquals(-1, compiled.ordinalOfAlias("z"));
+    }
+
+    @Test
+    public void compiledListIsFrozen() {
+        OptionList optionList = new OptionList() {{
+            addOption(simpleShortOption("handler1", "x"));
+        }};
+
+        CompiledOptionList compiled = optionList.compile();
+        Assert.assertSame(compiled, optionList.compile());
+
+        optionList.addOption(simpleShortOption("handler2", "y"));
+
+        Assert.assertEquals(1, compiled.size());
+        Assert.assertNull(compiled.findOption("y"));
+        Assert.assertNotNull(optionList.findOption("y"));
+    }
 }
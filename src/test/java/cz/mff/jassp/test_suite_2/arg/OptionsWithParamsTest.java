@@ -98,4 +98,25 @@ public final class OptionsWithParamsTest {
 
         assertThrows(ParserException.class, () -> parse(optionList, "lorem", "dolor"));
     }
+
+    @Test
+    public void numericParamsAreReadUnboxed() {
+        OptionList optionList = new OptionList() {{
+            addOption(Option.builder().addShortAlias("x").setExtractor(Extractor.Integer()).build());
+            addOption(Option.builder().addShortAlias("y").setExtractor(Extractor.Real()).build());
+            addOption(Option.builder().addShortAlias("z").setExtractor(Extractor.Integer()).build());
+            addOption(Option.builder().addShortAlias("s").expectsParameter().build());
+        }};
+
+        ParsedArgList result = parse(optionList, "-x", "42", "-y", "2.5", "-s", "spam");
+
+        assertEquals(42, result.getInt("x"));
+        assertEquals(2.5, result.getDouble("y"), 0);
+        assertEquals(42, result.getValue("x"));
+        assertEquals(2.5, result.getValue("y"));
+        assertEquals(7, result.getInt("z", 7));
+        assertThrows(ParserException.class, () -> result.getInt("z"));
+        assertThrows(ParserException.class, () -> result.getInt("y"));
+        assertThrows(ParserException.class, () -> result.getDouble("s"));
+    }
 }
@@ -2,6 +2,7 @@ package cz.mff.jassp.test_suite_2.extractor;
 
 import cz.mff.jassp.processing.extractor.ExtractorException;
 import cz.mff.jassp.processing.extractor.Extractor;
+import cz.mff.jassp.processing.extractor.IntExtractor;
 import org.junit.Test;
 
 import static cz.mff.jassp.test_suite_2.extractor.ExtractorsTest.EXTRACTOR_FACTORY_EXCEPTION;
@@ -91,4 +92,39 @@ public final class IntExtractorTest {
     public void equalBoundsFailFast() {
         assertThrows(EXTRACTOR_FACTORY_EXCEPTION, () -> Extractor.Integer(42, 42));
     }
+
+    @Test
+    public void parsesSameInputsAsIntegerParseInt() {
+        IntExtractor e = (IntExtractor) Extractor.Integer();
+        String[] samples = {"0", "-0", "+0", "+", "-", "", "007", "-2147483648", "2147483647", "2147483648",
+                "-2147483649", "99999999999", "1_000", " 1", "1 ", "0x10", "\u0661\u0662", "--1", "+-1"};
+
+        for (String sample : samples) {
+            Integer expected;
+            try {
+                expected = Integer.parseInt(sample);
+            }
+            catch (NumberFormatException ex) {
+                expected = null;
+            }
+
+            assertEquals(sample, expected != null, e.validate(sample));
+            if (expected != null) {
+                assertEquals(sample, expected, e.parse(sample));
+            }
+            else {
+                assertThrows(ExtractorException.class, () -> e.parse(sample));
+            }
+        }
+    }
+
+    @Test
+    public void unboxedParseEnforcesBounds() {
+        IntExtractor e = (IntExtractor) Extractor.Integer(40, 44);
+
+        assertEquals(44, e.parseOrFailure("44"));
+        assertNull(e.failureReason(e.parseOrFailure("44")));
+        assertEquals("Extracted int is out of bounds (40, 44)", e.failureReason(e.parseOrFailure("45")));
+        assertEquals("Failed to extract integer", e.failureReason(e.parseOrFailure(null)));
+    }
 }
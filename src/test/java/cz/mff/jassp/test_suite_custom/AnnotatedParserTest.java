@@ -0,0 +1,156 @@
+package cz.mff.jassp.test_suite_custom;
+
+import cz.mff.jassp.annotation.Arg;
+import cz.mff.jassp.annotation.ArgRule;
+import cz.mff.jassp.annotation.Arguments;
+import cz.mff.jassp.annotation.PlainArgs;
+import cz.mff.jassp.option.Option;
+import cz.mff.jassp.option.OptionList;
+import cz.mff.jassp.parser.ArgumentParser;
+import cz.mff.jassp.parser.CompiledParser;
+import cz.mff.jassp.parser.ParsedArgList;
+import cz.mff.jassp.processing.extractor.Extractor;
+import cz.mff.jassp.processing.extractor.ExtractorException;
+import cz.mff.jassp.processing.logic.BinaryRule;
+import cz.mff.jassp.processing.logic.Rule;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+public class AnnotatedParserTest {
+
+    /**
+     * Upper-cases values consisting of letters only.
+     */
+    public static class UpperCaseExtractor extends Extractor<String> {
+        @Override
+        public boolean validate(String match) {
+            return !match.isEmpty() && match.chars().allMatch(Character::isLetter);
+        }
+
+        @Override
+        public String parse(String match) throws ExtractorException {
+            return match.toUpperCase(Locale.ROOT);
+        }
+    }
+
+    @Arguments
+    @ArgRule(operator = BinaryRule.Operator.XOR, left = "release", right = "debug")
+    @ArgRule(operator = BinaryRule.Operator.IMPLIES, left = "level", right = "debug")
+    record BuildArgs(
+            @Arg boolean release,
+            @Arg(shortAliases = "d", longAliases = {"debug", "dbg"}) boolean debug,
+            @Arg(shortAliases = "l") Integer level,
+            @Arg(shortAliases = "i", required = true) String input,
+            @Arg(longAliases = "scale") double scale,
+            @Arg(shortAliases = "t", extractor = UpperCaseExtractor.class) String target,
+            @PlainArgs List<String> files) {
+    }
+
+    @Arguments
+    static class ServerArgs {
+        @Arg(shortAliases = "p", required = true) int port;
+        @Arg(shortAliases = "v") boolean verbose;
+        int ignored = -1;
+    }
+
+    /**
+     * Option list equivalent to the annotations of {@link BuildArgs}.
+     */
+    private static OptionList createBuildOptions() {
+        OptionList options = new OptionList();
+        options.addOptions(List.of(
+                Option.builder().addLongAlias("release").build(),
+                Option.builder().addShortAlias("d").addLongAliases(List.of("debug", "dbg")).setHandler("debug").build(),
+                Option.builder().addShortAlias("l").addLongAlias("level").setExtractor(Extractor.Integer()).build(),
+                Option.builder().addShortAlias("i").addLongAlias("input").setRequired().expectsParameter().build(),
+                Option.builder().addLongAlias("scale").setExtractor(Extractor.Real()).build(),
+                Option.builder().addShortAlias("t").addLongAlias("target").setExtractor(new UpperCaseExtractor()).build()
+        ));
+        options.addRules(List.of(
+                Rule.Xor("release", "debug"),
+                Rule.Implies("level", "debug")
+        ));
+        return options;
+    }
+
+    private static final List<String[]> commandLines = List.of(
+            new String[]{"--debug", "-l", "3", "-i", "in.txt", "--scale", "1.5", "-t", "abc", "a", "b"},
+            new String[]{"--release", "--input", "x", "--", "-not-an-option"},
+            new String[]{"--dbg", "-i", "x", ""},
+            new String[]{"-d", "-i", "x", "--scale", "-2e3", "-t", "Zed"},
+            new String[]{"--release", "--debug", "-i", "x"},
+            new String[]{"--release", "-l", "1", "-i", "x"},
+            new String[]{"--release"},
+            new String[]{"--release", "-i", "x", "--release"},
+            new String[]{"-d", "--dbg", "-i", "x"},
+            new String[]{"--release", "-i"},
+            new String[]{"--release", "-i", "x", "--scale", "abc"},
+            new String[]{"--debug", "-i", "x", "-l", "1.5"},
+            new String[]{"--release", "-i", "x", "-t", "a1"},
+            new String[]{"--release", "-i", "x", "--unknown"},
+            new String[]{"--release", "-i", "x", "-unknown"},
+            new String[]{"--release", "-i", "x", "-7"},
+            new String[]{"--release", "-i", "x", "plain", null},
+            new String[0]
+    );
+
+    private static Object failureOf(Function<String[], ?> parser, String[] args) {
+        try {
+            parser.apply(args);
+            return null;
+        }
+        catch (RuntimeException e) {
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+    }
+
+    @Test
+    public void generatedParserAgreesWithCompiledParser() {
+        CompiledParser compiled = ArgumentParser.compile(createBuildOptions());
+
+        for (String[] args : commandLines) {
+            String description = String.join(" ", java.util.Arrays.stream(args).map(String::valueOf).toList());
+
+            Object expectedFailure = failureOf(compiled::parse, args);
+            assertEquals(description, expectedFailure, failureOf(AnnotatedParserTest_BuildArgsParser::parse, args));
+            if (expectedFailure != null)
+                continue;
+
+            ParsedArgList expected = compiled.parse(args);
+            BuildArgs actual = AnnotatedParserTest_BuildArgsParser.parse(args);
+
+            assertEquals(description, expected.isPresent("release"), actual.release());
+            assertEquals(description, expected.isPresent("debug"), actual.debug());
+            assertEquals(description, expected.getValue("level"), actual.level());
+            assertEquals(description, expected.getValue("input"), actual.input());
+            assertEquals(description, expected.getDouble("scale", 0), actual.scale(), 0);
+            assertEquals(description, expected.getValue("target"), actual.target());
+            assertEquals(description, expected.getPlainArgs(), actual.files());
+        }
+    }
+
+    @Test
+    public void generatedParserFillsRecords() {
+        BuildArgs args = AnnotatedParserTest_BuildArgsParser.parse(
+                new String[]{"--debug", "-l", "3", "-i", "in.txt", "-t", "abc", "a", "b"});
+
+        assertEquals(new BuildArgs(false, true, 3, "in.txt", 0, "ABC", List.of("a", "b")), args);
+        assertThrows(UnsupportedOperationException.class, () -> args.files().add("c"));
+        assertNull(AnnotatedParserTest_BuildArgsParser.parse(new String[]{"--release", "-i", "x"}).level());
+    }
+
+    @Test
+    public void generatedParserFillsClasses() {
+        ServerArgs args = AnnotatedParserTest_ServerArgsParser.parse(new String[]{"-v", "--port", "8080", "ignored"});
+
+        assertEquals(8080, args.port);
+        assertTrue(args.verbose);
+        assertEquals(-1, args.ignored);
+        assertFalse(AnnotatedParserTest_ServerArgsParser.parse(new String[]{"-p", "1"}).verbose);
+    }
+}
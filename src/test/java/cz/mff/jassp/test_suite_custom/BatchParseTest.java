@@ -0,0 +1,154 @@
+package cz.mff.jassp.test_suite_custom;
+
+import cz.mff.jassp.option.Option;
+import cz.mff.jassp.option.OptionList;
+import cz.mff.jassp.parser.ArgumentParser;
+import cz.mff.jassp.parser.CompiledParser;
+import cz.mff.jassp.parser.ParseError;
+import cz.mff.jassp.parser.ParseResult;
+import cz.mff.jassp.processing.extractor.Extractor;
+import cz.mff.jassp.processing.logic.AtomicRule;
+import cz.mff.jassp.processing.logic.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class BatchParseTest {
+
+    private static final Rule levelGiven = new AtomicRule(List.of("level"), map -> map.get("level").wasMatched());
+
+    private static final OptionList options = new OptionList() {{
+        addOptions(List.of(
+                Option.builder().addLongAlias("release").build(),
+                Option.builder().addLongAlias("debug").build(),
+                Option.builder().addShortAlias("l").addLongAlias("level").setExtractor(Extractor.Integer(0, 5)).build(),
+                Option.builder().addShortAlias("i").expectsParameter().build()
+        ));
+        addRules(List.of(
+                Rule.Xor("release", "debug"),
+                // shared by both rules, so that rule evaluation uses a memo
+                Rule.Implies("debug", levelGiven),
+                Rule.Implies("release", Rule.Not(levelGiven))
+        ));
+    }};
+
+    /**
+     * Command lines cycling through accepted ones and ones rejected for different reasons.
+     */
+    private static List<String[]> createBatch(int size) {
+        List<String[]> batch = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            batch.add(switch (i % 5) {
+                case 0 -> new String[]{"--debug", "-l", Integer.toString(i % 6), "-i", "in" + i};
+                case 1 -> new String[]{"--release", "plain" + i};
+                case 2 -> new String[]{"--debug", "-l", Integer.toString(i)};
+                case 3 -> new String[]{"--release", "--debug"};
+                default -> new String[]{"--release", "--unknown" + i};
+            });
+        }
+        return batch;
+    }
+
+    private static void assertSameResults(CompiledParser parser, List<String[]> batch, List<ParseResult> results) {
+        assertEquals(batch.size(), results.size());
+        for (int i = 0; i < batch.size(); i++) {
+            ParseResult expected = parser.tryParse(batch.get(i));
+            ParseResult actual = results.get(i);
+
+            assertEquals("item " + i, expected.isSuccess(), actual.isSuccess());
+            if (expected.isSuccess()) {
+                assertEquals("item " + i, expected.getArgs().getPlainArgs(), actual.getArgs().getPlainArgs());
+                assertEquals("item " + i, expected.getArgs().isPresent("level"), actual.getArgs().isPresent("level"));
+            }
+            else {
+                assertEquals("item " + i, expected.getError().getKind(), actual.getError().getKind());
+                assertEquals("item " + i, expected.getError().getMessage(), actual.getError().getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void resultsKeepOrderOfBatch() {
+        CompiledParser parser = ArgumentParser.compile(options);
+        List<String[]> batch = createBatch(10_000);
+
+        assertSameResults(parser, batch, parser.tryParseAll(batch));
+        assertSameResults(parser, batch, new ArgumentParser().tryParseAll(options, batch));
+    }
+
+    @Test
+    public void batchRunsOnProvidedExecutors() {
+        CompiledParser parser = ArgumentParser.compile(options);
+        List<String[]> batch = createBatch(1_000);
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            assertSameResults(parser, batch, parser.tryParseAll(batch, pool));
+            assertSameResults(parser, batch, parser.tryParseAll(batch, executor));
+            assertSameResults(parser, batch.subList(0, 1), parser.tryParseAll(batch.subList(0, 1), executor));
+        }
+        finally {
+            pool.shutdown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void streamedBatchKeepsEncounterOrder() {
+        CompiledParser parser = ArgumentParser.compile(options);
+        List<String[]> batch = createBatch(5_000);
+
+        List<ParseResult> results = parser.tryParseAll(batch.stream()).collect(Collectors.toList());
+        assertSameResults(parser, batch, results);
+    }
+
+    @Test
+    public void emptyBatchHasNoResults() {
+        assertTrue(ArgumentParser.compile(options).tryParseAll(List.of()).isEmpty());
+    }
+
+    @Test
+    public void unexpectedExceptionsFailOnlyTheirItem() {
+        OptionList failing = new OptionList();
+        failing.addOption(Option.builder().addShortAlias("a").build());
+        failing.addOption(Option.builder().addShortAlias("c").setExtractor(new Extractor<String>() {
+            @Override
+            public boolean validate(String match) { return true; }
+
+            @Override
+            public String parse(String match) {
+                throw new IllegalStateException("broken extractor");
+            }
+        }).build());
+        CompiledParser parser = ArgumentParser.compile(failing);
+
+        List<String[]> batch = List.of(new String[]{"-a"}, new String[]{"-c", "x"}, new String[]{null}, new String[0]);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (List<ParseResult> results : List.of(parser.tryParseAll(batch), parser.tryParseAll(batch, executor),
+                    parser.tryParseAll(batch.stream()).collect(Collectors.toList()))) {
+                assertTrue(results.get(0).isSuccess());
+                assertTrue(results.get(3).isSuccess());
+
+                ParseError thrown = results.get(1).getError();
+                assertEquals(ParseError.Kind.EXCEPTION_THROWN, thrown.getKind());
+                assertEquals("broken extractor", thrown.getCause().getMessage());
+                assertSame(thrown.getCause(), thrown.toException());
+
+                assertTrue(results.get(2).getError().getCause() instanceof NullPointerException);
+                assertThrows(NullPointerException.class, results.get(2)::getArgs);
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+}
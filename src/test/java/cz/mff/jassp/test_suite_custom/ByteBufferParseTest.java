@@ -0,0 +1,128 @@
+package cz.mff.jassp.test_suite_custom;
+
+import cz.mff.jassp.option.Option;
+import cz.mff.jassp.option.OptionList;
+import cz.mff.jassp.parser.ArgumentParser;
+import cz.mff.jassp.parser.CompiledParser;
+import cz.mff.jassp.parser.NulDelimitedBytes;
+import cz.mff.jassp.parser.ParsedArgList;
+import cz.mff.jassp.parser.ParserException;
+import cz.mff.jassp.processing.extractor.Extractor;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ByteBufferParseTest {
+
+    private static final OptionList options = new OptionList() {{
+        addOptions(List.of(
+                Option.builder().addShortAlias("v").addLongAlias("verbose").build(),
+                Option.builder().addShortAlias("n").setExtractor(Extractor.Integer()).build(),
+                Option.builder().addLongAlias("name").expectsParameter().build()
+        ));
+    }};
+
+    private static ByteBuffer cmdline(String... args) {
+        StringBuilder sb = new StringBuilder();
+        for (String arg : args) {
+            sb.append(arg).append('\0');
+        }
+        return ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertSameResult(String... args) {
+        CompiledParser parser = ArgumentParser.compile(options);
+        ParsedArgList expected = parser.parse(args);
+        ParsedArgList actual = parser.parse(cmdline(args));
+
+        for (String handler : List.of("verbose", "n", "name")) {
+            assertEquals(expected.isPresent(handler), actual.isPresent(handler));
+            assertEquals(expected.getValue(handler), actual.getValue(handler));
+            assertEquals(expected.getRawValue(handler), actual.getRawValue(handler));
+        }
+        assertEquals(expected.getPlainArgs(), actual.getPlainArgs());
+    }
+
+    @Test
+    public void bufferParsesSameAsStrings() {
+        assertSameResult("-v", "-n", "42", "--name", "\u017elu\u0165ou\u010dk\u00fd", "plain", "-v");
+        assertSameResult("--verbose", "--", "--name", "");
+        assertSameResult("", "-n", "1");
+        assertSameResult();
+    }
+
+    @Test
+    public void bufferErrorsMatchStrings() {
+        CompiledParser parser = ArgumentParser.compile(options);
+
+        assertThrows(ParserException.class, () -> parser.parse(cmdline("-x")));
+        assertThrows(ParserException.class, () -> parser.parse(cmdline("-vv")));
+        assertThrows(ParserException.class, () -> parser.parse(cmdline("-v", "--verbose")));
+        assertThrows(ParserException.class, () -> parser.parse(cmdline("-n")));
+    }
+
+    @Test
+    public void lastArgumentDoesNotNeedTerminator() {
+        ByteBuffer buffer = ByteBuffer.wrap("-n\u00007\u0000rest".getBytes(StandardCharsets.UTF_8));
+
+        ParsedArgList parsedArgs = ArgumentParser.compile(options).parse(buffer);
+
+        assertEquals(7, parsedArgs.getValue("n"));
+        assertEquals(List.of("rest"), parsedArgs.getPlainArgs());
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    public void directSliceIsParsed() {
+        byte[] bytes = "junk\u0000-v\u0000--name\u0000x\u0000junk".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+
+        ParsedArgList parsedArgs = new ArgumentParser().parse(options, direct.slice(5, 12));
+
+        assertTrue(parsedArgs.isPresent("verbose"));
+        assertEquals("x", parsedArgs.getValue("name"));
+        assertTrue(parsedArgs.getPlainArgs().isEmpty());
+    }
+
+    @Test
+    public void memoryMappedFileIsParsed() throws IOException {
+        Path file = Files.createTempFile("cmdline", ".bin");
+        try {
+            Files.write(file, cmdline("-n", "5", "a", "b").array());
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                ParsedArgList parsedArgs = ArgumentParser.compile(options).parse(mapped);
+
+                assertEquals(5, parsedArgs.getValue("n"));
+                assertEquals(List.of("a", "b"), parsedArgs.getPlainArgs());
+            }
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void tokenizerLocatesTokens() {
+        NulDelimitedBytes tokens = new NulDelimitedBytes(cmdline("ab", "", "c"));
+
+        assertTrue(tokens.next());
+        assertEquals("ab", tokens.decode());
+        assertTrue(tokens.next());
+        assertEquals(0, tokens.length());
+        assertTrue(tokens.next());
+        assertEquals('c', tokens.byteAt(0));
+        assertFalse(tokens.next());
+    }
+}
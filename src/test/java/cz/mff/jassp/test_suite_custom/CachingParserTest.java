@@ -0,0 +1,148 @@
+package cz.mff.jassp.test_suite_custom;
+
+import cz.mff.jassp.option.Option;
+import cz.mff.jassp.option.OptionList;
+import cz.mff.jassp.parser.ArgumentParser;
+import cz.mff.jassp.parser.CachingParser;
+import cz.mff.jassp.parser.ParseError;
+import cz.mff.jassp.parser.ParseResult;
+import cz.mff.jassp.parser.ParsedArgList;
+import cz.mff.jassp.parser.ParserException;
+import cz.mff.jassp.processing.extractor.Extractor;
+import cz.mff.jassp.processing.logic.AtomicRule;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CachingParserTest {
+
+    /**
+     * Number of times the rule was evaluated, i.e. number of parses which weren't answered from a cache.
+     */
+    private final int[] evaluations = {0};
+
+    private OptionList createOptions() {
+        OptionList options = new OptionList();
+        options.addOptions(List.of(
+                Option.builder().addShortAlias("v").build(),
+                Option.builder().addShortAlias("l").addLongAlias("level").setExtractor(Extractor.Integer(0, 5)).build()
+        ));
+        options.addRule(new AtomicRule(List.of("v"), map -> {
+            evaluations[0]++;
+            return true;
+        }));
+        return options;
+    }
+
+    @Test
+    public void repeatedArgsAreAnsweredFromCache() {
+        CachingParser parser = ArgumentParser.compileCaching(createOptions(), 10);
+
+        String[] args = {"-v", "-l", "3", "plain"};
+        ParsedArgList first = parser.parse(args);
+        ParsedArgList second = parser.parse(new String[]{"-v", "-l", "3", "plain"});
+
+        assertSame(first, second);
+        assertEquals(3, second.getInt("level"));
+        assertEquals(1, evaluations[0]);
+        assertEquals(new CachingParser.Stats(1, 1, 0, 1), parser.getStats());
+        assertEquals(0.5, parser.getStats().hitRate(), 0);
+    }
+
+    @Test
+    public void keysAreCopiedFromArgs() {
+        CachingParser parser = ArgumentParser.compileCaching(createOptions(), 10);
+
+        String[] args = {"-l", "3"};
+        parser.parse(args);
+        args[1] = "4";
+
+        assertEquals(4, parser.parse(args).getInt("level"));
+        assertEquals(3, parser.parse(new String[]{"-l", "3"}).getInt("level"));
+        assertEquals(2, evaluations[0]);
+    }
+
+    @Test
+    public void rejectionsAreCached() {
+        CachingParser parser = ArgumentParser.compileCaching(createOptions(), 10);
+
+        String[] args = {"-l", "9"};
+        ParseResult first = parser.tryParse(args);
+        assertFalse(first.isSuccess());
+        assertEquals(ParseError.Kind.INVALID_VALUE, first.getError().getKind());
+
+        assertSame(first, parser.tryParse(args));
+        assertThrows(RuntimeException.class, () -> parser.parse(args));
+
+        String[] unknown = {"--unknown"};
+        assertThrows(ParserException.class, () -> parser.parse(unknown));
+        assertThrows(ParserException.class, () -> parser.parse(unknown));
+
+        assertEquals(new CachingParser.Stats(3, 2, 0, 2), parser.getStats());
+    }
+
+    @Test
+    public void leastRecentlyUsedResultsAreEvicted() {
+        CachingParser parser = ArgumentParser.compileCaching(createOptions(), 2);
+
+        parser.parse(new String[]{"-l", "1"});
+        parser.parse(new String[]{"-l", "2"});
+        // touch the first one, so that the second one is the least recently used
+        parser.parse(new String[]{"-l", "1"});
+        parser.parse(new String[]{"-l", "3"});
+
+        assertEquals(new CachingParser.Stats(1, 3, 1, 2), parser.getStats());
+
+        parser.parse(new String[]{"-l", "1"});
+        parser.parse(new String[]{"-l", "2"});
+        assertEquals(new CachingParser.Stats(2, 4, 2, 2), parser.getStats());
+
+        parser.clear();
+        assertEquals(new CachingParser.Stats(0, 0, 0, 0), parser.getStats());
+    }
+
+    @Test
+    public void cachedResultsCannotBeModified() {
+        CachingParser parser = ArgumentParser.compileCaching(createOptions(), 10);
+
+        ParsedArgList parsedArgs = parser.parse(new String[]{"plain"});
+        assertThrows(UnsupportedOperationException.class, () -> parsedArgs.getPlainArgs().add("other"));
+
+        parsedArgs.getPresenceBits()[0] = -1L;
+        assertFalse(parser.parse(new String[]{"plain"}).isPresent("v"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void cachedValuesCannotBeModified() {
+        OptionList options = createOptions();
+        options.addOptions(List.of(
+                Option.builder().addShortAlias("n").setExtractor(Extractor.List(",", Extractor.Integer())).build(),
+                Option.builder().addShortAlias("s").setExtractor(Extractor.List(",")).build(),
+                Option.builder().addShortAlias("a").setExtractor(Extractor.IntArray(",")).build()
+        ));
+        CachingParser parser = ArgumentParser.compileCaching(options, 10);
+
+        String[] lists = {"-n", "1,2", "-s", ""};
+        ParsedArgList parsedArgs = parser.parse(lists);
+        List<Integer> numbers = (List<Integer>) parsedArgs.getValue("n");
+        List<String> strings = (List<String>) parsedArgs.getValue("s");
+        assertThrows(UnsupportedOperationException.class, () -> numbers.set(0, 9));
+        assertThrows(UnsupportedOperationException.class, () -> strings.add("other"));
+        assertSame(parsedArgs, parser.parse(lists));
+        assertEquals(List.of(1, 2), parser.parse(lists).getValue("n"));
+
+        // arrays can't be made unmodifiable, so their command lines are parsed each time
+        String[] array = {"-a", "1,2"};
+        ((int[]) parser.parse(array).getValue("a"))[0] = 9;
+        assertArrayEquals(new int[]{1, 2}, (int[]) parser.parse(array).getValue("a"));
+        assertEquals(new CachingParser.Stats(2, 3, 0, 1), parser.getStats());
+    }
+
+    @Test
+    public void maximumSizeMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> ArgumentParser.compileCaching(createOptions(), 0));
+    }
+}
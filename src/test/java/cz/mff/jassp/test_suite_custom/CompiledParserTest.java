@@ -0,0 +1,222 @@
+package cz.mff.jassp.test_suite_custom;
+
+import cz.mff.jassp.option.Option;
+import cz.mff.jassp.option.OptionList;
+import cz.mff.jassp.parser.ArgumentParser;
+import cz.mff.jassp.parser.CompiledParser;
+import cz.mff.jassp.parser.ParseError;
+import cz.mff.jassp.parser.ParseResult;
+import cz.mff.jassp.parser.ParsedArgList;
+import cz.mff.jassp.parser.ParserException;
+import cz.mff.jassp.processing.extractor.Extractor;
+import cz.mff.jassp.processing.extractor.ExtractorException;
+import cz.mff.jassp.processing.extractor.RealExtractor;
+import cz.mff.jassp.processing.logic.LogicException;
+import cz.mff.jassp.processing.logic.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class CompiledParserTest {
+
+    /**
+     * Rounds non-negative reals to whole numbers, which the unboxed path of built-in extractors must not bypass.
+     */
+    public static class RoundingExtractor extends RealExtractor {
+        @Override
+        public boolean validate(String match) {
+            return super.validate(match) && !match.startsWith("-");
+        }
+
+        @Override
+        public Double parse(String match) throws ExtractorException {
+            if (match.startsWith("-"))
+                throw new ExtractorException("Negative ratio: " + match);
+            return (double) Math.round(super.parse(match));
+        }
+    }
+
+    private static OptionList createOptions() {
+        OptionList options = new OptionList();
+        options.addOptions(List.of(
+                Option.builder()
+                        .addLongAlias("release")
+                        .build(),
+                Option.builder()
+                        .addLongAlias("debug")
+                        .build(),
+                Option.builder()
+                        .addShortAlias("l")
+                        .addLongAlias("level")
+                        .setExtractor(Extractor.Integer())
+                        .build(),
+                Option.builder()
+                        .addShortAlias("i")
+                        .setRequired()
+                        .expectsParameter()
+                        .build()
+        ));
+        options.addRules(List.of(
+                Rule.Xor("release", "debug"),
+                Rule.Implies("level", "debug")
+        ));
+        return options;
+    }
+
+    @Test
+    public void compiledParserMatchesArgumentParser() {
+        OptionList options = createOptions();
+        String[] args = new String[]{"--debug", "-l", "3", "-i", "in.txt", "plain"};
+
+        ParsedArgList expected = new ArgumentParser().parse(options, args);
+        ParsedArgList actual = ArgumentParser.compile(options).parse(args);
+
+        for (String handler : List.of("release", "debug", "level", "i")) {
+            assertEquals(expected.isPresent(handler), actual.isPresent(handler));
+            assertEquals(expected.getValue(handler), actual.getValue(handler));
+            assertEquals(expected.getRawValue(handler), actual.getRawValue(handler));
+        }
+        assertEquals(expected.getPlainArgs(), actual.getPlainArgs());
+    }
+
+    @Test
+    public void compiledParserEnforcesSpecification() {
+        CompiledParser parser = ArgumentParser.compile(createOptions());
+
+        assertThrows(ParserException.class, () -> parser.parse(new String[]{"--debug"}));
+        assertThrows(ParserException.class, () -> parser.parse(new String[]{"--debug", "-i", "a", "--debug"}));
+        assertThrows(LogicException.class, () -> parser.parse(new String[]{"--release", "--debug", "-i", "a"}));
+    }
+
+    @Test
+    public void compiledParserIgnoresLaterModifications() {
+        OptionList options = createOptions();
+        CompiledParser parser = ArgumentParser.compile(options);
+
+        options.addOption(Option.builder().addShortAlias("x").build());
+
+        assertThrows(ParserException.class, () -> parser.parse(new String[]{"--debug", "-i", "a", "-x"}));
+        assertTrue(new ArgumentParser().parse(options, new String[]{"--debug", "-i", "a", "-x"}).isPresent("x"));
+    }
+
+    @Test
+    public void compiledParserCanBeShared() throws Exception {
+        CompiledParser parser = ArgumentParser.compile(createOptions());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                String level = Integer.toString(i);
+                results.add(executor.submit(() -> (Integer) parser
+                        .parse(new String[]{"--debug", "--level", level, "-i", "in.txt"})
+                        .getValue("level")));
+            }
+
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(Integer.valueOf(i), results.get(i).get());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void optionsBeyondFirstWordOfBitsetAreTracked() {
+        // 150 options span three words of presence bits, mandatory ones lie in the last two
+        OptionList options = new OptionList();
+        for (int i = 0; i < 150; i++) {
+            var builder = Option.builder().addLongAlias("opt" + i);
+            if (i % 2 == 1)
+                builder.setExtractor(Extractor.Integer());
+            if (i == 71 || i == 149)
+                builder.setRequired();
+            options.addOption(builder.build());
+        }
+        CompiledParser parser = ArgumentParser.compile(options);
+
+        ParseResult missing = parser.tryParse(new String[]{"--opt149", "1"});
+        assertEquals(ParseError.Kind.MISSING_MANDATORY, missing.getError().getKind());
+        assertEquals("opt71", missing.getError().getHandler());
+        assertEquals("opt149", parser.tryParse(new String[]{"--opt71", "0"}).getError().getHandler());
+
+        ParseResult duplicate = parser.tryParse(new String[]{"--opt71", "0", "--opt149", "1", "--opt128", "--opt128"});
+        assertEquals(ParseError.Kind.DUPLICATE_OPTION, duplicate.getError().getKind());
+
+        ParsedArgList parsed = parser.parse(new String[]{"--opt71", "0", "--opt149", "1", "--opt63", "2", "--opt64"});
+        for (int i = 0; i < 150; i++) {
+            boolean matched = i == 63 || i == 64 || i == 71 || i == 149;
+            assertEquals("opt" + i, matched, parsed.isPresent("opt" + i));
+            assertTrue("opt" + i, parsed.hasArgument("opt" + i));
+        }
+        assertEquals(Boolean.FALSE, parsed.getValue("opt0"));
+        assertNull(parsed.getValue("opt1"));
+        assertEquals(2, parsed.getInt("opt63"));
+    }
+
+    @Test
+    public void unmatchedOptionsShareImmutablePlaceholders() {
+        CompiledParser parser = ArgumentParser.compile(createOptions());
+
+        ParsedArgList first = parser.parse(new String[]{"--debug", "-i", "a"});
+        ParsedArgList second = parser.parse(new String[]{"--release", "-i", "b"});
+
+        assertSame(first.findArgument("level"), second.findArgument("level"));
+        assertSame(first.findArgument("release"), parser.parse(new String[]{"--debug", "-i", "c"}).findArgument("release"));
+        assertNotSame(first.findArgument("i"), second.findArgument("i"));
+
+        assertFalse(first.isPresent("release"));
+        assertFalse(first.findArgument("release").wasMatched());
+        assertEquals(Boolean.FALSE, first.getValue("release"));
+        assertNull(first.getValue("level"));
+        assertNull(first.getRawValue("level"));
+        assertTrue(first.hasArgument("level"));
+        assertNull(first.findArgument("unknown"));
+    }
+
+    @Test
+    public void subclassesOfBuiltInExtractorsAreNotBypassed() {
+        OptionList options = new OptionList();
+        options.addOptions(List.of(
+                Option.builder().addLongAlias("ratio").setExtractor(new RoundingExtractor()).build(),
+                Option.builder().addLongAlias("ratios").setExtractor(Extractor.List(",", new RoundingExtractor())).build()
+        ));
+        String[] args = {"--ratio", "2.6", "--ratios", "1.2,3.7"};
+
+        CompiledParser parser = ArgumentParser.compile(options);
+        ParsedArgList parsed = parser.parse(args);
+        assertEquals(3.0, parsed.getValue("ratio"));
+        assertEquals(3.0, parsed.getDouble("ratio"), 0);
+        assertEquals(List.of(1.0, 4.0), parsed.getValue("ratios"));
+
+        assertFalse(parser.tryParse(new String[]{"--ratio", "-1.5"}).isSuccess());
+        assertFalse(parser.tryParse(new String[]{"--ratios", "1,-1"}).isSuccess());
+    }
+
+    @Test
+    public void rejectedPrimitiveValuesReportWhyTheyWereRejected() {
+        OptionList options = new OptionList();
+        options.addOptions(List.of(
+                Option.builder().addShortAlias("n").setExtractor(Extractor.Integer(0, 10)).build(),
+                Option.builder().addShortAlias("r").setExtractor(Extractor.Real(0, 1)).build()
+        ));
+
+        CompiledParser parser = ArgumentParser.compile(options);
+        for (String[] args : List.of(
+                new String[]{"-n", "x"}, new String[]{"-n", "11"}, new String[]{"-n", "99999999999"},
+                new String[]{"-r", "1.2.3"}, new String[]{"-r", "2"}, new String[]{"-r", "1e400"})) {
+            ParseError error = parser.tryParse(args).getError();
+            String expected = options.findOption(args[0].substring(1)).getExtractor().extract(args[1]).getReason();
+            assertEquals(ParseError.Kind.INVALID_VALUE, error.getKind());
+            assertEquals(1, error.getTokenIndex());
+            assertEquals(expected + ": " + args[1], error.getMessage());
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package cz.mff.jassp.test_suite_custom;
+
+import cz.mff.jassp.option.Option;
+import cz.mff.jassp.option.OptionList;
+import cz.mff.jassp.parser.ArgumentParser;
+import cz.mff.jassp.parser.CompiledParser;
+import cz.mff.jassp.parser.ParsedArgList;
+import cz.mff.jassp.processing.extractor.Extractor;
+import cz.mff.jassp.processing.logic.AtomicRule;
+import cz.mff.jassp.processing.logic.CompiledRules;
+import cz.mff.jassp.processing.logic.LogicException;
+import cz.mff.jassp.processing.logic.Rule;
+import cz.mff.jassp.processing.logic.RuleProgram;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class CompiledRulesTest {
+
+    private static final List<String> flags = List.of("a", "b", "c", "d");
+
+    private static OptionList createOptions(List<Rule> rules) {
+        OptionList options = new OptionList();
+        for (String flag : flags) {
+            options.addOption(Option.builder().addShortAlias(flag).build());
+        }
+        options.addOption(Option.builder().addShortAlias("n").setExtractor(Extractor.Integer()).build());
+        options.addRules(rules);
+        return options;
+    }
+
+    private static List<Rule> createRules() {
+        Rule nIsLarge = new AtomicRule(List.of("n"),
+                map -> map.get("n").wasMatched() && (int) map.get("n").getValue() > 10);
+        Rule custom = new Rule() {
+            @Override
+            public boolean holds(ParsedArgList target) {
+                return !target.isPresent("d") || target.isPresent("a");
+            }
+        };
+
+        return List.of(
+                Rule.Xor("a", "b"),
+                Rule.Implies("c", Rule.Or("a", Rule.Not("d"))),
+                Rule.Eq(Rule.NAnd("a", "c"), Rule.ImpliedBy("b", "d")),
+                Rule.Exists("c").Implies(nIsLarge),
+                nIsLarge.Implies(Rule.Exists("a").Or(Rule.Exists("b"))),
+                custom
+        );
+    }
+
+    @Test
+    public void compiledRulesAgreeWithRuleTrees() {
+        List<Rule> rules = createRules();
+        ArgumentParser unconstrained = new ArgumentParser();
+        OptionList plainOptions = createOptions(List.of());
+
+        for (Rule rule : rules) {
+            OptionList options = createOptions(List.of(rule));
+
+            for (int mask = 0; mask < 1 << flags.size(); mask++) {
+                for (String n : new String[]{null, "5", "20"}) {
+                    List<String> args = new ArrayList<>();
+                    for (int i = 0; i < flags.size(); i++) {
+                        if ((mask & (1 << i)) != 0)
+                            args.add("-" + flags.get(i));
+                    }
+                    if (n != null) {
+                        args.add("-n");
+                        args.add(n);
+                    }
+                    String[] argArray = args.toArray(new String[0]);
+
+                    boolean expected = rule.holds(unconstrained.parse(plainOptions, argArray));
+                    boolean actual = ArgumentParser.compile(options).tryParse(argArray).isSuccess();
+                    assertEquals(args.toString(), expected, actual);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void presenceIsTrackedBeyondFirstWord() {
+        OptionList options = new OptionList();
+        for (int i = 0; i < 130; i++) {
+            options.addOption(Option.builder().addLongAlias("opt" + i).build());
+        }
+        options.addRules(List.of(Rule.Implies("opt129", Rule.Not("opt65"))));
+
+        ParsedArgList parsedArgs = new ArgumentParser().parse(options, new String[]{"--opt129", "--opt1"});
+        assertTrue(parsedArgs.isPresent("opt129"));
+        assertFalse(parsedArgs.isPresent("opt65"));
+
+        assertThrows(LogicException.class,
+                () -> new ArgumentParser().parse(options, new String[]{"--opt65", "--opt129"}));
+    }
+
+    @Test
+    public void presenceOnlyRulesArePrecomputed() {
+        OptionList options = createOptions(List.of());
+        List<Rule> rules = createRules();
+
+        assertTrue(CompiledRules.compile(rules.subList(0, 3), options.compile()::ordinalOf).hasPrecomputedPresenceRules());
+        assertFalse(CompiledRules.compile(rules.subList(3, 6), options.compile()::ordinalOf).hasPrecomputedPresenceRules());
+        assertFalse(CompiledRules.compile(List.of(Rule.Exists("unknown")), options.compile()::ordinalOf).hasPrecomputedPresenceRules());
+    }
+
+    @Test
+    public void largePresenceOnlyRuleSetsAgreeWithRuleTrees() {
+        // more options than fit into a truth table, so the rules are precomputed into a BDD
+        int count = 40;
+        OptionList plainOptions = new OptionList();
+        for (int i = 0; i < count; i++) {
+            plainOptions.addOption(Option.builder().addLongAlias("opt" + i).build());
+        }
+
+        Random random = new Random(42);
+        List<Rule> rules = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            rules.add(Rule.Or(
+                    Rule.Implies("opt" + random.nextInt(count), "opt" + random.nextInt(count)),
+                    Rule.Xor("opt" + random.nextInt(count), Rule.Not("opt" + random.nextInt(count)))));
+        }
+        Rule conjunction = rules.stream().reduce((left, right) -> Rule.Not(Rule.NAnd(left, right))).orElseThrow();
+
+        OptionList options = new OptionList();
+        for (int i = 0; i < count; i++) {
+            options.addOption(Option.builder().addLongAlias("opt" + i).build());
+        }
+        options.addRules(rules);
+        assertTrue(CompiledRules.compile(rules, options.compile()::ordinalOf).hasPrecomputedPresenceRules());
+
+        CompiledParser parser = ArgumentParser.compile(options);
+        CompiledParser unconstrained = ArgumentParser.compile(plainOptions);
+        for (int round = 0; round < 2000; round++) {
+            List<String> args = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                if (random.nextBoolean())
+                    args.add("--opt" + i);
+            }
+            String[] argArray = args.toArray(new String[0]);
+
+            boolean expected = conjunction.holds(unconstrained.parse(argArray));
+            assertEquals(args.toString(), expected, parser.tryParse(argArray).isSuccess());
+        }
+    }
+
+    @Test
+    public void identicalSubtreesAreMergedAndConstantsFolded() {
+        OptionList options = createOptions(List.of());
+        List<Rule> rules = List.of(
+                Rule.Implies("a", Rule.Or("b", "c")),
+                Rule.Implies("a", Rule.Or("b", "c")),
+                Rule.Or("c", "b").ImpliedBy("a"),
+                Rule.Not(Rule.Not(Rule.Xor("a", "d"))).Or(Rule.Not("d").Eq("d")),
+                Rule.Or("a", Rule.Not("a"))
+        );
+
+        CompiledRules compiled = CompiledRules.compile(rules, options.compile()::ordinalOf);
+
+        assertEquals(5 + 5 + 5 + 10 + 4, compiled.getSourceNodeCount());
+        // a, b, c, d, Or(b, c), Implies(a, Or(b, c)), Xor(a, d)
+        assertEquals(7, compiled.getNodeCount());
+    }
+
+    @Test
+    public void sharedSubexpressionsAreEvaluatedOncePerParse() {
+        int[] evaluations = {0};
+        Rule counted = new AtomicRule(List.of("n"), map -> {
+            evaluations[0]++;
+            return map.get("n").wasMatched();
+        });
+
+        OptionList options = createOptions(List.of(
+                Rule.Implies("a", counted),
+                Rule.Implies("b", counted),
+                Rule.Or(counted, "c")
+        ));
+
+        ArgumentParser.compile(options).parse(new String[]{"-a", "-b", "-n", "1"});
+        assertEquals(1, evaluations[0]);
+    }
+
+    @Test
+    public void ruleProgramAgreesWithRuleTrees() {
+        List<Rule> rules = createRules();
+        OptionList options = createOptions(List.of());
+        CompiledParser parser = ArgumentParser.compile(options);
+
+        List<RuleProgram> programs = new ArrayList<>();
+        for (Rule rule : rules) {
+            programs.add(RuleProgram.compile(List.of(rule), options.compile()::ordinalOf));
+        }
+        RuleProgram all = RuleProgram.compile(rules, options.compile()::ordinalOf);
+
+        for (int mask = 0; mask < 1 << flags.size(); mask++) {
+            for (String n : new String[]{null, "5", "20"}) {
+                List<String> args = new ArrayList<>();
+                for (int i = 0; i < flags.size(); i++) {
+                    if ((mask & (1 << i)) != 0)
+                        args.add("-" + flags.get(i));
+                }
+                if (n != null) {
+                    args.add("-n");
+                    args.add(n);
+                }
+                ParsedArgList parsedArgs = parser.parse(args.toArray(new String[0]));
+
+                boolean allHold = true;
+                for (int i = 0; i < rules.size(); i++) {
+                    boolean expected = rules.get(i).holds(parsedArgs);
+                    assertEquals(args + " " + i, expected, programs.get(i).holds(parsedArgs));
+                    allHold &= expected;
+                }
+                assertEquals(args.toString(), allHold, all.holds(parsedArgs));
+            }
+        }
+    }
+
+    @Test
+    public void deepRuleTreesAreEvaluatedWithoutRecursion() throws InterruptedException {
+        int depth = 100_000;
+        int[] evaluations = {0};
+        Rule nIsLarge = new AtomicRule(List.of("n"), map -> {
+            evaluations[0]++;
+            return map.get("n").wasMatched() && (int) map.get("n").getValue() > 10;
+        });
+
+        // left-deep chain alternating a presence test and a short-circuited atomic rule
+        Rule chain = Rule.Exists("a");
+        for (int i = 0; i < depth; i++) {
+            chain = i % 2 == 0 ? chain.Xor("b") : chain.Or(nIsLarge);
+        }
+
+        OptionList options = createOptions(List.of());
+        CompiledParser parser = ArgumentParser.compile(options);
+        RuleProgram program = RuleProgram.compile(List.of(chain), options.compile()::ordinalOf);
+
+        for (String[] args : new String[][]{{"-b"}, {"-b", "-n", "5"}, {"-a", "-n", "20"}}) {
+            ParsedArgList parsedArgs = parser.parse(args);
+            boolean a = parsedArgs.isPresent("a");
+            boolean b = parsedArgs.isPresent("b");
+            boolean large = parsedArgs.isPresent("n") && (int) parsedArgs.findArgument("n").getValue() > 10;
+
+            boolean expected = a;
+            int expectedEvaluations = 0;
+            for (int i = 0; i < depth; i++) {
+                if (i % 2 == 0) {
+                    expected ^= b;
+                }
+                else if (!expected) {
+                    expectedEvaluations++;
+                    expected = large;
+                }
+            }
+
+            // the recursive Rule#holds would overflow even the default stack at this depth
+            AtomicReference<Boolean> actual = new AtomicReference<>();
+            evaluations[0] = 0;
+            Thread thread = new Thread(null, () -> actual.set(program.holds(parsedArgs)), "small-stack", 64 * 1024);
+            thread.start();
+            thread.join();
+
+            assertEquals(List.of(args).toString(), expected, actual.get());
+            // the shared atomic rule is memoized, so it runs at most once
+            assertEquals(List.of(args).toString(), Math.min(expectedEvaluations, 1), evaluations[0]);
+        }
+    }
+}
@@ -1,11 +1,29 @@
 package cz.mff.jassp.test_suite_custom;
 
 import org.junit.Test;
+import cz.mff.jassp.option.Option;
+import cz.mff.jassp.option.OptionList;
+import cz.mff.jassp.parser.ArgumentParser;
+import cz.mff.jassp.parser.CompiledParser;
 import cz.mff.jassp.processing.extractor.ExtractorException;
 import cz.mff.jassp.processing.extractor.Extractor;
+import cz.mff.jassp.processing.extractor.ListExtractor;
+import cz.mff.jassp.processing.extractor.Splitter;
+import cz.mff.jassp.processing.extractor.StringExtractor;
+import cz.mff.jassp.processing.extractor.StructListExtractor;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
 
 import static org.junit.Assert.*;
 
@@ -85,4 +103,380 @@ public class ExtractorTest {
         assertEquals(expectedNestedList1, nestedParser.parse("1-2,3-4,5-6"));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void extractReportsFailureWithoutThrowing() {
+        var intExtraction = Extractor.Integer(0, 10).extract("11");
+        assertFalse(intExtraction.isSuccess());
+        assertEquals("11", intExtraction.getInput());
+        assertThrows(ExtractorException.class, intExtraction::getValue);
+
+        assertEquals((Object) 7, Extractor.Integer(0, 10).extract("7").getValue());
+        assertFalse(Extractor.Real().extract("1.2.3").isSuccess());
+        assertEquals((Object) Double.POSITIVE_INFINITY, Extractor.Real(0, 1).extract("inf").getValue());
+        assertFalse(Extractor.String(List.of("a", "b")).extract("c").isSuccess());
+        assertFalse(Extractor.List(",").extract(null).isSuccess());
+
+        var nestedFailure = Extractor.List(",", Extractor.Integer()).extract("1,x,3");
+        assertFalse(nestedFailure.isSuccess());
+        assertEquals("x", nestedFailure.getInput());
+        assertEquals(Arrays.asList(1, 2, 3), Extractor.List(",", Extractor.Integer()).extract("1,2,3").getValue());
+    }
+
+    @Test
+    public void customExtractorsAreOnlyParsedOnce() {
+        List<String> calls = new ArrayList<>();
+        ExtractorException rejection = new ExtractorException("Not an even number: 3", new NumberFormatException());
+        Extractor<Integer> even = new Extractor<>() {
+            @Override
+            public boolean validate(String match) {
+                calls.add("validate");
+                return false;
+            }
+
+            @Override
+            public Integer parse(String match) throws ExtractorException {
+                calls.add("parse");
+                if (Integer.parseInt(match) % 2 != 0)
+                    throw rejection;
+                return Integer.parseInt(match);
+            }
+        };
+
+        assertEquals((Object) 4, even.extract("4").getValue());
+        var failure = even.extract("3");
+        assertFalse(failure.isSuccess());
+        assertEquals("Not an even number: 3", failure.getReason());
+        assertSame(rejection, failure.getCause());
+        assertEquals(List.of("parse", "parse"), calls);
+
+        OptionList options = new OptionList();
+        options.addOption(Option.builder().addShortAlias("e").setExtractor(even).build());
+        CompiledParser parser = ArgumentParser.compile(options);
+        assertSame(rejection, parser.tryParse(new String[]{"-e", "3"}).getError().getCause());
+        ExtractorException thrown = assertThrows(ExtractorException.class, () -> parser.parse(new String[]{"-e", "3"}));
+        assertSame(rejection, thrown.getCause());
+        assertTrue(thrown.getMessage().startsWith("Not an even number: 3"));
+    }
+
+    @Test
+    public void realsAreExtractedWithoutInternalExceptions() throws Exception {
+        var extractor = Extractor.Real(0, 10);
+        List<String> malformed = List.of("abc", "1.2.3", "1e", "1ee2", "--1", "+-1", ".", "e5", "", " ", "1_000",
+                "0x", "0x1.8", "0xp1", "1.5x", "1.5dd", "12345678901234567890x", "NaN", "-Infinityy");
+        List<String> outOfBounds = List.of("11", "-1", "1e400", "12345678901234567890", "0x1p4", "2e1d");
+        List<String> valid = List.of("5", "0.25", "9.99999999999999999999", "0x1.8p1", " 3 ", "1e-400", "7f", "-0");
+
+        Path dump = Files.createTempFile("real-extractor", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.JavaExceptionThrow");
+            recording.start();
+            for (String match : malformed) {
+                var extraction = extractor.extract(match);
+                assertFalse(match, extraction.isSuccess());
+                assertEquals(match, "Failed to extract double", extraction.getReason());
+            }
+            for (String match : outOfBounds) {
+                var extraction = extractor.extract(match);
+                assertFalse(match, extraction.isSuccess());
+                assertTrue(match, extraction.getReason().contains("out of bounds"));
+            }
+            for (String match : valid) {
+                assertEquals(match, (Object) Double.parseDouble(match), extractor.extract(match).getValue());
+            }
+            recording.stop();
+            recording.dump(dump);
+
+            List<String> thrown = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+                String thrownClass = event.getClass("thrownClass").getName();
+                if (thrownClass.equals(NumberFormatException.class.getName()))
+                    thrown.add(event.getString("message"));
+            }
+            assertEquals(List.of(), thrown);
+        }
+        finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    @Test
+    public void extractAgreesWithValidateAndParse() {
+        var extractors = List.of(
+                Extractor.Integer(), Extractor.Integer(-5, 5), Extractor.Real(), Extractor.Real(0, 1),
+                Extractor.String(), Extractor.String(List.of("a")), Extractor.List(","),
+                Extractor.List(",", Extractor.Real(0, 1)));
+        var inputs = Arrays.asList(null, "", "a", "0", "-6", "0.5", "2e3", "inf", "-inf", "NaN", "0.1,0.9", "0.1,9");
+
+        for (Extractor<?> extractor : extractors) {
+            for (String input : inputs) {
+                var extraction = extractor.extract(input);
+                assertEquals(extractor.validate(input), extraction.isSuccess());
+                if (extraction.isSuccess())
+                    assertEquals(extractor.parse(input), extraction.getValue());
+            }
+        }
+    }
+
+    @Test
+    public void stringDomainReturnsCanonicalValues() {
+        List<String> domain = List.of("eu-west", "eu-north", "us-east", "US-EAST-2");
+        var exact = Extractor.String(domain);
+
+        String match = new String("eu-west");
+        assertNotSame("eu-west", match);
+        assertSame("eu-west", exact.parse(match));
+        assertSame("eu-west", exact.extract(match).getValue());
+        assertFalse(exact.validate("EU-WEST"));
+        assertFalse(exact.validate("eu"));
+        assertFalse(exact.validate(null));
+    }
+
+    @Test
+    public void stringDomainMatchesIgnoringCase() {
+        var extractor = Extractor.String(List.of("eu-west", "US-East"), StringExtractor.Matching.IGNORE_CASE);
+
+        assertSame("eu-west", extractor.parse("EU-West"));
+        assertSame("US-East", extractor.parse("us-east"));
+        assertFalse(extractor.validate("us"));
+        assertFalse(extractor.validate("us-east-1"));
+
+        assertThrows(ExtractorException.class,
+                () -> Extractor.String(List.of("us", "US"), StringExtractor.Matching.IGNORE_CASE));
+        // duplicates of the same value are fine
+        assertTrue(Extractor.String(List.of("us", "us"), StringExtractor.Matching.IGNORE_CASE).validate("Us"));
+    }
+
+    @Test
+    public void stringDomainMatchesUniquePrefixes() {
+        List<String> domain = List.of("install", "in", "info", "remove");
+        var extractor = Extractor.String(domain, StringExtractor.Matching.UNIQUE_PREFIX);
+
+        assertSame("install", extractor.parse("ins"));
+        assertSame("info", extractor.parse("inf"));
+        assertSame("remove", extractor.parse("r"));
+        // a whole value wins over longer values it is a prefix of
+        assertSame("in", extractor.parse("in"));
+
+        assertFalse(extractor.validate("i"));
+        assertFalse(extractor.validate("Rem"));
+        assertFalse(extractor.validate("removed"));
+        assertFalse(extractor.extract("").isSuccess());
+
+        var ignoringCase = Extractor.String(domain, StringExtractor.Matching.UNIQUE_PREFIX_IGNORE_CASE);
+        assertSame("remove", ignoringCase.parse("Rem"));
+        assertSame("install", ignoringCase.parse("INST"));
+        assertFalse(ignoringCase.validate("I"));
+
+        // prefixes have at least one char, even of a single value
+        var single = Extractor.String(List.of("install"), StringExtractor.Matching.UNIQUE_PREFIX);
+        assertSame("install", single.parse("i"));
+        assertFalse(single.validate(""));
+        assertFalse(single.extract("").isSuccess());
+        assertSame("", Extractor.String(List.of("", "install"), StringExtractor.Matching.UNIQUE_PREFIX).parse(""));
+    }
+
+    @Test
+    public void largeStringDomainsAgreeWithLists() {
+        List<String> domain = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            domain.add("SKU-" + Integer.toString(i * 7919, 36));
+        }
+
+        var exact = Extractor.String(domain);
+        var ignoringCase = Extractor.String(domain, StringExtractor.Matching.IGNORE_CASE);
+        for (int i = 0; i < 10000; i++) {
+            String candidate = "SKU-" + Integer.toString(i * 3967, 36);
+            assertEquals(candidate, domain.contains(candidate), exact.validate(candidate));
+            assertEquals(candidate, domain.contains(candidate), ignoringCase.validate(candidate.toLowerCase()));
+        }
+    }
+
+    @Test
+    public void splitterAgreesWithQuotedSplit() {
+        Random random = new Random(7);
+        char[] alphabet = {'a', 'b', '.', '|', ':'};
+        for (String delimiter : List.of(".", "|", "::", "a.")) {
+            Splitter splitter = Splitter.on(delimiter);
+            for (int round = 0; round < 2000; round++) {
+                StringBuilder input = new StringBuilder();
+                int length = random.nextInt(12);
+                for (int i = 0; i < length; i++) {
+                    input.append(alphabet[random.nextInt(alphabet.length)]);
+                }
+
+                String value = input.toString();
+                List<String> expected = Arrays.asList(value.split(Pattern.quote(delimiter)));
+                assertEquals(delimiter + " in " + value, expected, splitter.split(value));
+            }
+        }
+    }
+
+    @Test
+    public void structListSplitsByLiteralDelimiter() {
+        // the delimiter used to be taken as a regular expression
+        assertEquals(List.of(1, 2, 3), Extractor.List(".", Extractor.Integer()).parse("1.2.3"));
+        assertEquals(List.of("1", "2", "3"), Extractor.List("|").parse("1|2|3"));
+        assertEquals(List.of(10, -2), Extractor.List("||", Extractor.Integer()).parse("10||-2"));
+
+        var failure = Extractor.List(",", Extractor.Integer(0, 5)).extract("1,7,x");
+        assertFalse(failure.isSuccess());
+        assertEquals("7", failure.getInput());
+    }
+
+    @Test
+    public void splitterUnescapesDelimiters() {
+        Splitter splitter = Splitter.on(",", '\\');
+
+        assertEquals(List.of("a,b", "c"), splitter.split("a\\,b,c"));
+        assertEquals(List.of("a\\", "b"), splitter.split("a\\\\,b"));
+        assertEquals(List.of("", "x", "y\\"), splitter.split(",\\x,y\\"));
+        assertEquals(List.of("a", "b"), splitter.split("a,b,,"));
+        assertEquals(List.of("a,b", "c,d"), new ListExtractor(splitter).parse("a\\,b,c\\,d"));
+        assertEquals(List.of(1, 23), Extractor.List(splitter, Extractor.Integer()).parse("1,2\\3"));
+
+        assertThrows(ExtractorException.class, () -> Splitter.on("\\,", '\\'));
+        assertThrows(ExtractorException.class, () -> Splitter.on(""));
+    }
+
+    @Test
+    public void splitterReportsRegionsOfInput() {
+        String input = "12,345,,6";
+        List<String> parts = new ArrayList<>();
+        assertTrue(Splitter.on(",").forEachPart(input, (seq, from, to) -> {
+            assertSame(input, seq);
+            parts.add(input.substring(from, to));
+            return true;
+        }));
+        assertEquals(List.of("12", "345", "", "6"), parts);
+        assertEquals(4, Splitter.on(",").maxPartCount(input));
+
+        int[] count = {0};
+        assertFalse(Splitter.on(",").forEachPart(input, (seq, from, to) -> ++count[0] < 2));
+        assertEquals(2, count[0]);
+    }
+
+    @Test
+    public void numericListsAreExtractedIntoArrays() {
+        // splitting and accumulation are shared by all element types
+        var ints = Extractor.IntArray(",", 0, 10);
+        assertArrayEquals(new int[]{1, 2, 3}, ints.parse("1,2,3,,"));
+        assertArrayEquals(new int[0], ints.parse(",,"));
+        assertFalse(ints.validate(null));
+        assertFalse(ints.validate(""));
+
+        var failure = ints.extract("1,11,x");
+        assertEquals("11", failure.getInput());
+        assertEquals(1, failure.getItemIndex());
+        assertEquals("Extracted int is out of bounds (0, 10)", failure.getReason());
+    }
+
+    @Test
+    public void numericArrayItemsAreCheckedByTheirType() {
+        assertArrayEquals(new int[]{Integer.MIN_VALUE, Integer.MAX_VALUE},
+                Extractor.IntArray(",").parse(Integer.MIN_VALUE + ",+" + Integer.MAX_VALUE));
+        assertEquals("Failed to extract integer", Extractor.IntArray(",").extract("2147483648").getReason());
+
+        assertArrayEquals(new long[]{Long.MIN_VALUE, 2147483648L, Long.MAX_VALUE},
+                Extractor.LongArray(";").parse(Long.MIN_VALUE + ";2147483648;+" + Long.MAX_VALUE));
+        assertEquals("Failed to extract long", Extractor.LongArray(",").extract("9223372036854775808").getReason());
+        assertEquals("Failed to extract long", Extractor.LongArray(",").extract("-").getReason());
+        assertEquals("Extracted long is out of bounds (0, 5)", Extractor.LongArray(",", 0, 5).extract("6").getReason());
+
+        assertArrayEquals(new double[]{0.5, -1e3, Double.POSITIVE_INFINITY},
+                Extractor.RealArray(",").parse("0.5,-1e3,inf"), 0);
+        assertEquals("2.5", Extractor.RealArray(",", 0, 1).extract("0.25,2.5").getInput());
+    }
+
+    @Test
+    public void realItemsAgreeWithParseDouble() {
+        Random random = new Random(11);
+        var reals = Extractor.RealArray(",");
+        String[] fixed = {"0", "-0", "1.", ".5", "00012.5000", "1e22", "1e23", "123456789012345678", "4.35",
+                "9007199254740993", "1E-7", "2.2250738585072014E-308", "0x1p3", "1d", "1e", "-", "."};
+
+        List<String> inputs = new ArrayList<>(List.of(fixed));
+        for (int i = 0; i < 5000; i++) {
+            String mantissa = Long.toString(random.nextLong() % 100_000_000_000L);
+            int point = random.nextInt(mantissa.length() + 1);
+            String value = mantissa.substring(0, point) + "." + mantissa.substring(point);
+            if (random.nextBoolean())
+                value += "e" + (random.nextInt(60) - 30);
+            inputs.add(value);
+        }
+
+        for (String input : inputs) {
+            Double expected;
+            try {
+                expected = Double.parseDouble(input);
+            }
+            catch (NumberFormatException e) {
+                expected = null;
+            }
+
+            var extraction = reals.extract(input);
+            if (expected == null) {
+                assertFalse(input, extraction.isSuccess());
+            }
+            else {
+                assertTrue(input, extraction.isSuccess());
+                assertEquals(input, Double.doubleToLongBits(expected), Double.doubleToLongBits(extraction.getValue()[0]));
+            }
+        }
+    }
+
+    @Test
+    public void parallelStructListsAgreeWithSequentialOnes() {
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            joined.append(i == 0 ? "" : ";").append(i % 7 == 0 ? "\\;" : "").append(i);
+        }
+        String input = joined.toString();
+
+        var sequential = new StructListExtractor<>(Splitter.on(";", '\\'), Extractor.String());
+        var parallel = sequential.parallel(100);
+        assertEquals(sequential.parse(input), parallel.parse(input));
+        assertThrows(UnsupportedOperationException.class, () -> parallel.parse(input).set(0, "x"));
+        assertThrows(UnsupportedOperationException.class, () -> sequential.parse("a").add("x"));
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            assertEquals(sequential.parse(input), sequential.parallel(1, pool).parse(input));
+            assertEquals(List.of("a"), sequential.parallel(1, pool).parse("a"));
+        }
+        finally {
+            pool.shutdown();
+        }
+
+        assertThrows(ExtractorException.class, () -> sequential.parallel(0));
+        assertThrows(ExtractorException.class, () -> sequential.parallel(1, null));
+    }
+
+    @Test
+    public void parallelStructListsReportFirstInvalidItem() {
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) {
+            // invalid items in several chunks, the first one lies near the end
+            boolean invalid = i == 41_234 || i == 45_000 || i == 49_999;
+            joined.append(i == 0 ? "" : ",").append(invalid ? "x" + i : Integer.toString(i));
+        }
+        String input = joined.toString();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            var sequential = new StructListExtractor<>(",", Extractor.Integer());
+            var extractor = sequential.parallel(10, pool);
+            for (int attempt = 0; attempt < 20; attempt++) {
+                var extraction = extractor.extract(input);
+                assertFalse(extraction.isSuccess());
+                assertEquals("x41234", extraction.getInput());
+                assertEquals(41_234, extraction.getItemIndex());
+            }
+            assertEquals(41_234, sequential.extract(input).getItemIndex());
+            assertFalse(extractor.validate(input));
+            assertEquals(List.of(1, 2, 3), extractor.parse("1,2,3"));
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+}
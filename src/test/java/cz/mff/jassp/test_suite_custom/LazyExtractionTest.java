@@ -0,0 +1,148 @@
+package cz.mff.jassp.test_suite_custom;
+
+import cz.mff.jassp.option.BuilderException;
+import cz.mff.jassp.option.Option;
+import cz.mff.jassp.option.OptionList;
+import cz.mff.jassp.parser.ArgumentParser;
+import cz.mff.jassp.parser.CompiledParser;
+import cz.mff.jassp.parser.ParseError;
+import cz.mff.jassp.parser.ParseResult;
+import cz.mff.jassp.parser.ParsedArgList;
+import cz.mff.jassp.processing.extractor.Extractor;
+import cz.mff.jassp.processing.extractor.ExtractorException;
+import cz.mff.jassp.processing.logic.AtomicRule;
+import cz.mff.jassp.processing.logic.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class LazyExtractionTest {
+
+    /**
+     * Decodes base64 values, counting how many times values were validated and decoded.
+     */
+    private static class Base64Extractor extends Extractor<byte[]> {
+        private final AtomicInteger validations = new AtomicInteger();
+        private final AtomicInteger decodes = new AtomicInteger();
+        private final boolean cheap;
+
+        Base64Extractor(boolean cheap) {
+            this.cheap = cheap;
+        }
+
+        @Override
+        public boolean validate(String match) {
+            validations.incrementAndGet();
+            return match.chars().allMatch(c -> Character.isLetterOrDigit(c) || c == '+' || c == '/' || c == '=');
+        }
+
+        @Override
+        public byte[] parse(String match) throws ExtractorException {
+            decodes.incrementAndGet();
+            try {
+                return Base64.getDecoder().decode(match);
+            }
+            catch (IllegalArgumentException e) {
+                throw new ExtractorException("Invalid base64 value");
+            }
+        }
+
+        @Override
+        public boolean validatesCheaply() { return cheap; }
+    }
+
+    private static OptionList createOptions(Extractor<byte[]> blobExtractor) {
+        OptionList options = new OptionList();
+        options.addOptions(List.of(
+                Option.builder().addLongAlias("blob").setExtractor(blobExtractor).setLazy().build(),
+                Option.builder().addShortAlias("v").build()
+        ));
+        // rules only reading presence and raw values don't force parsing
+        options.addRules(List.of(
+                Rule.Implies("blob", "v"),
+                new AtomicRule(List.of("blob"), map -> map.get("blob").getRawValue() == null || !map.get("blob").getRawValue().isEmpty())
+        ));
+        return options;
+    }
+
+    @Test
+    public void lazyValuesAreParsedOnFirstAccess() {
+        Base64Extractor extractor = new Base64Extractor(true);
+        CompiledParser parser = ArgumentParser.compile(createOptions(extractor));
+
+        ParsedArgList parsed = parser.parse(new String[]{"--blob", "aGVsbG8=", "-v"});
+        assertTrue(parsed.isPresent("blob"));
+        assertEquals("aGVsbG8=", parsed.getRawValue("blob"));
+        assertEquals(1, extractor.validations.get());
+        assertEquals(0, extractor.decodes.get());
+
+        assertArrayEquals("hello".getBytes(), (byte[]) parsed.getValue("blob"));
+        assertSame(parsed.getValue("blob"), parsed.getValue("blob"));
+        assertEquals(1, extractor.decodes.get());
+    }
+
+    @Test
+    public void invalidLazyValuesAreRejectedDuringParsing() {
+        Base64Extractor extractor = new Base64Extractor(true);
+        CompiledParser parser = ArgumentParser.compile(createOptions(extractor));
+
+        ParseResult result = parser.tryParse(new String[]{"--blob", "not base64", "-v"});
+        assertFalse(result.isSuccess());
+        assertEquals(ParseError.Kind.INVALID_VALUE, result.getError().getKind());
+        assertEquals("blob", result.getError().getHandler());
+
+        // passes validation, but fails to be decoded once accessed
+        ParsedArgList parsed = parser.parse(new String[]{"--blob", "a", "-v"});
+        assertThrows(ExtractorException.class, () -> parsed.getValue("blob"));
+        assertThrows(ExtractorException.class, () -> parsed.getValue("blob"));
+    }
+
+    @Test
+    public void expensiveValidatorsAreExtractedEagerly() {
+        Base64Extractor extractor = new Base64Extractor(false);
+        CompiledParser parser = ArgumentParser.compile(createOptions(extractor));
+
+        ParsedArgList parsed = parser.parse(new String[]{"--blob", "aGVsbG8=", "-v"});
+        assertEquals(1, extractor.decodes.get());
+        assertArrayEquals("hello".getBytes(), (byte[]) parsed.getValue("blob"));
+        assertEquals(1, extractor.decodes.get());
+    }
+
+    @Test
+    public void lazyValueIsParsedOnceByConcurrentReaders() throws Exception {
+        Base64Extractor extractor = new Base64Extractor(true);
+        CompiledParser parser = ArgumentParser.compile(createOptions(extractor));
+        ParsedArgList parsed = parser.parse(new String[]{"--blob", "aGVsbG8=", "-v"});
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> values = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                values.add(executor.submit(() -> parsed.getValue("blob")));
+            }
+
+            Object first = values.get(0).get();
+            for (Future<Object> value : values) {
+                assertSame(first, value.get());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+        assertEquals(1, extractor.decodes.get());
+    }
+
+    @Test
+    public void flagsCannotBeLazy() {
+        assertThrows(BuilderException.class, () -> Option.builder().addShortAlias("f").setLazy().build());
+        assertFalse(Option.builder().addShortAlias("f").expectsParameter().build().isLazy());
+    }
+}
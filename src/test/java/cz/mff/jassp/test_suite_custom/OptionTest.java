@@ -90,6 +90,26 @@ public class OptionTest {
         assertThrows(BuilderException.class, () -> Option.builder().addLongAlias(""));
     }
 
+    @Test
+    public void aliasScannerMatchesRegexRules() {
+        List<String> samples = List.of("", "a", "Z", "8", "-", "aa", "a1", "1a", "al-pha", "ga mma", "alpha2",
+                "\u00e1", "a\n", "\u00e1bc", "abc\u00e1", "A", "Ab", "_a", "a_b");
+
+        for (String sample : samples) {
+            assertEquals(sample, sample.matches("^[a-zA-Z]$"), Option.isValidShortAlias(sample));
+            assertEquals(sample, sample.matches("^[a-zA-Z][a-zA-Z0-9]+$"), Option.isValidLongAlias(sample));
+        }
+    }
+
+    @Test
+    public void aliasScannerWorksOnRegions() {
+        assertTrue(Option.isValidShortAlias("-a", 1, 2));
+        assertFalse(Option.isValidShortAlias("-ab", 1, 3));
+        assertTrue(Option.isValidLongAlias("--alpha", 2, 7));
+        assertFalse(Option.isValidLongAlias("--alpha", 1, 7));
+        assertFalse(Option.isValidLongAlias("--a", 2, 3));
+    }
+
     @Test
     public void afterBuildTest() {
         var builder = Option.builder()
@@ -0,0 +1,98 @@
+package cz.mff.jassp.test_suite_custom;
+
+import cz.mff.jassp.option.Option;
+import cz.mff.jassp.option.OptionList;
+import cz.mff.jassp.parser.ArgumentParser;
+import cz.mff.jassp.parser.CompiledParser;
+import cz.mff.jassp.parser.NulDelimitedTokens;
+import cz.mff.jassp.parser.ParsedArgList;
+import cz.mff.jassp.parser.ParserException;
+import cz.mff.jassp.processing.extractor.Extractor;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class StreamingParseTest {
+
+    private static final OptionList options = new OptionList() {{
+        addOptions(List.of(
+                Option.builder().addShortAlias("v").build(),
+                Option.builder().addShortAlias("n").setExtractor(Extractor.Integer()).setRequired().build()
+        ));
+    }};
+
+    @Test
+    public void plainArgsAreStreamedToConsumer() {
+        List<String> plainArgs = new ArrayList<>();
+
+        ParsedArgList parsedArgs = new ArgumentParser().parse(
+                options,
+                List.of("-v", "-n", "3", "first", "-v", "second").iterator(),
+                plainArgs::add);
+
+        assertTrue(parsedArgs.isPresent("v"));
+        assertEquals(3, parsedArgs.getValue("n"));
+        assertEquals(List.of("first", "-v", "second"), plainArgs);
+        assertTrue(parsedArgs.getPlainArgs().isEmpty());
+    }
+
+    @Test
+    public void delimiterIsNotStreamed() {
+        List<String> plainArgs = new ArrayList<>();
+
+        ArgumentParser.compile(options).parse(Stream.of("-n", "3", "--", "--", "-x"), plainArgs::add);
+
+        assertEquals(List.of("--", "-x"), plainArgs);
+    }
+
+    @Test
+    public void plainArgsAreConsumedLazily() {
+        CompiledParser parser = ArgumentParser.compile(options);
+        int count = 1_000_000;
+        Iterator<String> args = Stream.concat(
+                Stream.of("-n", "1", "--"),
+                IntStream.range(0, count).mapToObj(i -> "file" + i)
+        ).iterator();
+
+        int[] seen = new int[1];
+        parser.parse(args, plainArg -> seen[0]++);
+
+        assertEquals(count, seen[0]);
+    }
+
+    @Test
+    public void optionsAreValidatedBeforeStreaming() {
+        List<String> plainArgs = new ArrayList<>();
+
+        assertThrows(ParserException.class, () -> ArgumentParser.compile(options)
+                .parse(Stream.of("-v", "plain"), plainArgs::add));
+        assertTrue(plainArgs.isEmpty());
+    }
+
+    @Test
+    public void nulDelimitedReaderIsTokenized() {
+        List<String> plainArgs = new ArrayList<>();
+        NulDelimitedTokens tokens = new NulDelimitedTokens(new StringReader("-n\u00004\u0000a b\u0000\u0000c"));
+
+        ParsedArgList parsedArgs = ArgumentParser.compile(options).parse(tokens, plainArgs::add);
+
+        assertEquals(4, parsedArgs.getValue("n"));
+        assertEquals(List.of("a b", "", "c"), plainArgs);
+    }
+
+    @Test
+    public void nulDelimitedReaderHandlesTerminatedAndEmptyInput() {
+        List<String> tokens = new ArrayList<>();
+        new NulDelimitedTokens(new StringReader("a\u0000b\u0000")).forEachRemaining(tokens::add);
+        assertEquals(List.of("a", "b"), tokens);
+
+        assertFalse(new NulDelimitedTokens(new StringReader("")).hasNext());
+    }
+}
@@ -0,0 +1,122 @@
+package cz.mff.jassp.test_suite_custom;
+
+import cz.mff.jassp.option.Option;
+import cz.mff.jassp.option.OptionList;
+import cz.mff.jassp.parser.ArgumentParser;
+import cz.mff.jassp.parser.CompiledParser;
+import cz.mff.jassp.parser.ParseError;
+import cz.mff.jassp.parser.ParseResult;
+import cz.mff.jassp.parser.ParserException;
+import cz.mff.jassp.processing.extractor.Extractor;
+import cz.mff.jassp.processing.extractor.ExtractorException;
+import cz.mff.jassp.processing.logic.LogicException;
+import cz.mff.jassp.processing.logic.Rule;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TryParseTest {
+
+    private static final OptionList options = new OptionList() {{
+        addOptions(List.of(
+                Option.builder().addLongAlias("release").build(),
+                Option.builder().addLongAlias("debug").build(),
+                Option.builder().addShortAlias("l").addLongAlias("level").setExtractor(Extractor.Integer(0, 5)).build(),
+                Option.builder().addShortAlias("s").setExtractor(Extractor.Real(0, 1)).build(),
+                Option.builder().addShortAlias("m").setExtractor(Extractor.String(List.of("fast", "slow"))).build(),
+                Option.builder().addShortAlias("i").setRequired().expectsParameter().build()
+        ));
+        addRules(List.of(Rule.Xor("release", "debug")));
+    }};
+
+    private static ParseError errorOf(String... args) {
+        ParseResult result = ArgumentParser.compile(options).tryParse(args);
+        assertFalse(result.isSuccess());
+        return result.getError();
+    }
+
+    @Test
+    public void acceptedArgsAreReturned() {
+        ParseResult result = ArgumentParser.compile(options).tryParse(new String[]{"--debug", "-l", "3", "-i", "x", "plain"});
+
+        assertTrue(result.isSuccess());
+        assertNull(result.getError());
+        assertEquals(3, result.getArgs().getInt("level"));
+        assertEquals(List.of("plain"), result.getArgs().getPlainArgs());
+    }
+
+    @Test
+    public void rejectedArgsAreDescribed() {
+        ParseError error = errorOf("--debug", "-i", "x", "-l", "9");
+        assertEquals(ParseError.Kind.INVALID_VALUE, error.getKind());
+        assertEquals("level", error.getHandler());
+        assertEquals(4, error.getTokenIndex());
+        assertEquals("9", error.getToken());
+
+        error = errorOf("--debug", "--nope");
+        assertEquals(ParseError.Kind.UNDEFINED_OPTION, error.getKind());
+        assertNull(error.getHandler());
+        assertEquals(1, error.getTokenIndex());
+
+        assertEquals(ParseError.Kind.INVALID_OPTION, errorOf("-ab").getKind());
+        assertEquals(ParseError.Kind.DUPLICATE_OPTION, errorOf("--debug", "--debug").getKind());
+        assertEquals(ParseError.Kind.MISSING_PARAMETER, errorOf("--debug", "-i").getKind());
+        assertEquals(ParseError.Kind.INVALID_VALUE, errorOf("--debug", "-i", "x", "-m", "medium").getKind());
+        assertEquals(ParseError.Kind.INVALID_VALUE, errorOf("--debug", "-i", "x", "-s", "2").getKind());
+        assertEquals(ParseError.Kind.NULL_ARGUMENT, errorOf("--debug", "-i", "x", "a", null).getKind());
+
+        error = errorOf("--debug");
+        assertEquals(ParseError.Kind.MISSING_MANDATORY, error.getKind());
+        assertEquals("i", error.getHandler());
+        assertEquals(-1, error.getTokenIndex());
+
+        assertEquals(ParseError.Kind.RULE_VIOLATED, errorOf("-i", "x").getKind());
+    }
+
+    @Test
+    public void errorsMatchThrownExceptions() {
+        CompiledParser parser = ArgumentParser.compile(options);
+        List<String[]> rejected = List.of(
+                new String[]{"--debug", "-i", "x", "-l", "9"},
+                new String[]{"--debug", "-i", "x", "-l", "nine"},
+                new String[]{"--debug", "-i", "x", "-s", "2"},
+                new String[]{"--debug", "-i", "x", "-m", "medium"},
+                new String[]{"--nope"},
+                new String[]{"-ab"},
+                new String[]{"--a-"},
+                new String[]{"--debug", "--debug"},
+                new String[]{"--debug", "-i"},
+                new String[]{"--debug"},
+                new String[]{"-i", "x"},
+                new String[]{"-i", "x", "--debug", "--release"}
+        );
+
+        for (String[] args : rejected) {
+            ParseError error = parser.tryParse(args).getError();
+            RuntimeException thrown = assertThrows(RuntimeException.class, () -> parser.parse(args));
+
+            assertEquals(thrown.getClass(), error.toException().getClass());
+            assertEquals(thrown.getMessage(), error.getMessage());
+        }
+    }
+
+    @Test
+    public void errorsMapToExceptionTypes() {
+        assertTrue(errorOf("--debug", "-i", "x", "-l", "9").toException() instanceof ExtractorException);
+        assertTrue(errorOf("-i", "x").toException() instanceof LogicException);
+        assertTrue(errorOf("--debug").toException() instanceof ParserException);
+
+        ParseResult result = ArgumentParser.compile(options).tryParse(new String[]{"--debug"});
+        assertThrows(ParserException.class, result::getArgs);
+    }
+
+    @Test
+    public void inputIndependentErrorsArePreallocated() {
+        CompiledParser parser = ArgumentParser.compile(options);
+
+        assertSame(parser.tryParse(new String[]{"--debug"}).getError(), parser.tryParse(new String[]{"--debug", "--"}).getError());
+        assertSame(parser.tryParse(new String[]{"-i", "x"}).getError(), parser.tryParse(new String[]{"-i", "y"}).getError());
+    }
+}